@@ -0,0 +1,70 @@
+package com.chat.kit.benchmark;
+
+import com.chat.kit.KitApplication;
+import com.chat.kit.persistence.domain.Member;
+import com.chat.kit.persistence.repository.MemberRepository;
+import com.chat.kit.service.ChatService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * H2 위에서 회원 memberCount 명인 그룹 채팅방 생성 시간.
+ * 같은 회원들의 방은 기존 방을 돌려주므로 호출마다 회원 한명을 바꿔 항상 새 방을 만든다.
+ * 한 iteration 은 BATCH 번 생성한 총 시간이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(batchSize = ChatRoomCreationBenchmark.BATCH)
+@Measurement(batchSize = ChatRoomCreationBenchmark.BATCH)
+public class ChatRoomCreationBenchmark {
+    static final int BATCH = 20;
+    // warmup + measurement iteration 수보다 넉넉하게
+    private static final int EXTRA_MEMBERS = BATCH * 50;
+
+    @Param({"10", "100", "1000"})
+    public int memberCount;
+
+    private ConfigurableApplicationContext context;
+    private ChatService chatService;
+    private List<Long> baseMemberIds;
+    private long nextExtraMemberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(KitApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "chat.cluster.mode=local")
+                .run();
+        chatService = context.getBean(ChatService.class);
+
+        List<Member> members = new ArrayList<>(memberCount + EXTRA_MEMBERS);
+        for (long id = 1; id <= memberCount + EXTRA_MEMBERS; id++) {
+            members.add(new Member(id));
+        }
+        context.getBean(MemberRepository.class).saveAll(members);
+        baseMemberIds = LongStream.range(1, memberCount).boxed().toList();
+        nextExtraMemberId = memberCount;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long createRoom() {
+        List<Long> memberIds = new ArrayList<>(baseMemberIds);
+        memberIds.add(nextExtraMemberId++);
+        return chatService.createNewChatRoom(memberIds);
+    }
+}
@@ -0,0 +1,110 @@
+package com.chat.kit.benchmark;
+
+import com.chat.kit.KitApplication;
+import com.chat.kit.api.request.RequestChatMessage;
+import com.chat.kit.api.response.common.ChatRoomListResponse;
+import com.chat.kit.persistence.domain.ChatMessage;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.persistence.domain.Member;
+import com.chat.kit.persistence.repository.MemberRepository;
+import com.chat.kit.service.ChatService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * H2 위에서 ChatService 의 핫패스 측정.
+ *  - saveMessage     : 멤버 roomSize 명인 방에 메시지 1건 저장
+ *  - getChatRoomList : roomsPerMember 개 방에 참여한 회원의 채팅방 목록
+ *
+ * 파라미터는 벤치마크마다 따로 둔 @State 에 있어서, 각 벤치마크는 자기 파라미터 값 수만큼만 애플리케이션을 띄운다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatServiceBenchmark {
+    private static final long MEMBER_ID = 1L;
+
+    @State(Scope.Benchmark)
+    public static class SaveMessageState {
+        @Param({"2", "50", "500"})
+        public int roomSize;
+
+        private ConfigurableApplicationContext context;
+        private ChatService chatService;
+        private Long roomId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = start(roomSize);
+            chatService = context.getBean(ChatService.class);
+            // 측정 대상 방 : MEMBER_ID 를 포함한 roomSize 명
+            roomId = chatService.createNewChatRoom(LongStream.rangeClosed(1, roomSize).boxed().toList());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RoomListState {
+        @Param({"10", "100", "300"})
+        public int roomsPerMember;
+
+        private ConfigurableApplicationContext context;
+        private ChatService chatService;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = start(roomsPerMember + 1);
+            chatService = context.getBean(ChatService.class);
+            // MEMBER_ID 가 참여한 1:1 방들, 방마다 메시지 몇 건
+            for (long other = 2; other <= roomsPerMember + 1; other++) {
+                Long one2OneRoomId = chatService.createNewChatRoom(List.of(MEMBER_ID, other));
+                for (int i = 0; i < 3; i++) {
+                    chatService.saveMessage(new RequestChatMessage(other, one2OneRoomId, "message " + i, ChatType.TEXT));
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public ChatMessage saveMessage(SaveMessageState state) {
+        return state.chatService.saveMessage(new RequestChatMessage(MEMBER_ID, state.roomId, "hello", ChatType.TEXT));
+    }
+
+    @Benchmark
+    public List<ChatRoomListResponse> getChatRoomList(RoomListState state) {
+        return state.chatService.getChatRoomList(MEMBER_ID);
+    }
+
+    /**
+     * 새 H2 DB 로 애플리케이션을 띄우고 회원 1..memberCount 를 저장한다
+     */
+    private static ConfigurableApplicationContext start(int memberCount) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(KitApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "chat.cluster.mode=local")
+                .run();
+        List<Member> members = new ArrayList<>(memberCount);
+        for (long id = 1; id <= memberCount; id++) {
+            members.add(new Member(id));
+        }
+        context.getBean(MemberRepository.class).saveAll(members);
+        return context;
+    }
+}
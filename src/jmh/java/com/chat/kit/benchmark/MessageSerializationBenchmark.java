@@ -0,0 +1,60 @@
+package com.chat.kit.benchmark;
+
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.persistence.domain.ChatMessage;
+import com.chat.kit.persistence.domain.ChatRoom;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.persistence.domain.RoomType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메시지 1건을 응답 객체로 바꾸고 JSON 으로 직렬화하는 비용 (fan-out 수신자마다 반복되던 작업)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageSerializationBenchmark {
+
+    @Param({"16", "256", "2048"})
+    public int messageLength;
+
+    private ObjectMapper objectMapper;
+    private ChatMessage chatMessage;
+    private ChatRoomMessagesResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        ChatRoom chatRoom = ChatRoom.builder().roomType(RoomType.MULTIPLE).build();
+        chatRoom.setId(1L);
+        chatMessage = ChatMessage.builder()
+                .chatRoom(chatRoom)
+                .memberId(2L)
+                .message("a".repeat(messageLength))
+                .chatType(ChatType.TEXT)
+                .sentAt(LocalDateTime.now())
+                .build();
+        chatMessage.setId(100L);
+        response = ChatRoomMessagesResponse.of(chatMessage);
+    }
+
+    @Benchmark
+    public ChatRoomMessagesResponse toResponse() {
+        return ChatRoomMessagesResponse.of(chatMessage);
+    }
+
+    @Benchmark
+    public byte[] toResponseAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ChatRoomMessagesResponse.of(chatMessage));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,78 @@
+package com.chat.kit.benchmark;
+
+import com.chat.kit.service.ChatRoomPresenceRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * receiveMessage 에서 "지금 방에 들어와 있는 회원" 을 가려내는 비용.
+ *  - scanAllSubscriptions : 예전 방식. 접속한 모든 회원/세션/구독의 destination 을 비교
+ *  - presenceRegistry     : ChatRoomPresenceRegistry 로 방 참여자만 확인
+ *  - filterAbsent         : 메시지 한건의 안 읽은 참여자 계산 (UnreadCounterService.findAbsentMemberIds)
+ * gc profiler 의 gc.alloc.rate.norm 으로 연산당 할당량을 함께 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PresenceLookupBenchmark {
+    private static final long ROOM_ID = 1L;
+
+    @Param({"2", "50", "500"})
+    public int roomSize;
+
+    @Param({"1000", "10000", "50000"})
+    public int connectedUsers;
+
+    private ChatRoomPresenceRegistry registry;
+    private long[] roster;
+    // SimpUserRegistry 구조 흉내 : 회원 -> 세션 -> 구독 destination
+    private List<SimUser> users;
+
+    @Setup
+    public void setUp() {
+        registry = new ChatRoomPresenceRegistry();
+        roster = new long[roomSize];
+        users = new ArrayList<>(connectedUsers);
+        for (int i = 0; i < connectedUsers; i++) {
+            long memberId = i + 1;
+            // 방 참여자 절반은 방에 들어와 있고, 나머지 접속자는 다른 방들을 보고 있다
+            long roomId = (i < roomSize && i % 2 == 0) ? ROOM_ID : 1000 + (i % 5000);
+            String destination = ChatRoomPresenceRegistry.CHAT_ROOM_DESTINATION_PREFIX + roomId;
+            registry.subscribe("session-" + i, "sub-0", memberId, destination);
+            users.add(new SimUser(String.valueOf(memberId), List.of(List.of("/sub/myRoom/" + memberId, destination))));
+        }
+        for (int i = 0; i < roomSize; i++) {
+            roster[i] = i + 1;
+        }
+    }
+
+    @Benchmark
+    public void scanAllSubscriptions(Blackhole blackhole) {
+        String destination = ChatRoomPresenceRegistry.CHAT_ROOM_DESTINATION_PREFIX + ROOM_ID;
+        for (SimUser user : users) {
+            boolean inRoom = user.sessions().stream().anyMatch(subs -> subs.stream().anyMatch(destination::equals));
+            if (inRoom) {
+                blackhole.consume(Long.parseLong(user.name()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void presenceRegistry(Blackhole blackhole) {
+        for (long memberId : roster) {
+            blackhole.consume(registry.isOnline(ROOM_ID, memberId));
+        }
+    }
+
+    @Benchmark
+    public long[] filterAbsent() {
+        return registry.filterAbsent(ROOM_ID, roster, 1L);
+    }
+
+    private record SimUser(String name, List<List<String>> sessions) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.chat.kit.benchmark;
+
+import com.chat.kit.myutil_token.system.service.SystemTokenCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 시스템 토큰 발급 비용 : 매번 RS256 서명 vs SystemTokenCache 에서 읽기
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SystemTokenBenchmark {
+    private static final Duration LIFETIME = Duration.ofMinutes(5);
+
+    private PrivateKey privateKey;
+    private SystemTokenCache cache;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        privateKey = generator.generateKeyPair().getPrivate();
+        cache = new SystemTokenCache(privateKey, LIFETIME, Duration.ofMinutes(1), Clock.systemUTC());
+        cache.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.stop();
+    }
+
+    @Benchmark
+    public String sign() {
+        return SystemTokenCache.sign(privateKey, Instant.now(), LIFETIME);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String cachedRead() {
+        return cache.get();
+    }
+}
@@ -0,0 +1,60 @@
+package com.chat.kit.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 전달 지연 (발행 시각 ~ 구독자가 받은 시각) 집계.
+ * 초 단위 구간 값은 interval 로, 측정 구간 전체 값은 total 로 모은다.
+ */
+public class LatencyStats {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder count = new LongAdder();
+    private Histogram interval;
+
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+
+    public void record(long sentNanos, long receivedNanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(receivedNanos - sentNanos), MAX_LATENCY_MICROS);
+        recorder.recordValue(Math.max(micros, 0));
+        count.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 지난 호출 이후의 구간 값을 반환하고, measuring 이면 전체 값에도 더한다
+     */
+    public synchronized Histogram rollInterval(boolean measuring) {
+        interval = recorder.getIntervalHistogram(interval);
+        if (measuring) {
+            total.add(interval);
+        }
+        return interval;
+    }
+
+    public synchronized void printSummary(PrintStream out, double seconds) {
+        out.printf("%-13s deliveries=%d (%.1f/s) p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms%n",
+                name, total.getTotalCount(), total.getTotalCount() / seconds,
+                millis(total.getValueAtPercentile(50)),
+                millis(total.getValueAtPercentile(99)),
+                millis(total.getValueAtPercentile(99.9)),
+                millis(total.getMaxValue()));
+    }
+
+    static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.chat.kit.loadtest;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 부하 생성기 옵션. --key=value 형태로 받는다.
+ *
+ *  --url                  : STOMP 엔드포인트 (기본 ws://localhost:8788/ws)
+ *  --http-url             : 회원/채팅방 생성용 REST 주소 (기본 url 에서 유추)
+ *  --members              : 접속할 회원(세션) 수
+ *  --member-id-offset     : 생성할 회원 id 시작값 (기존 데이터와 겹치지 않게)
+ *  --room-sizes           : 방 크기 분포, 크기:가중치 목록 (예 2:70,10:25,100:5)
+ *  --absent-ratio         : 채팅방을 구독하지 않고 /sub/myRoom 알림만 받는 회원 비율
+ *  --rate                 : 전체 초당 발행 메시지 수
+ *  --message-size         : 메시지 본문 길이
+ *  --warmup / --duration  : 측정 제외 구간 / 측정 구간 (초)
+ *  --connect-concurrency  : 동시에 진행하는 연결 수
+ */
+@Getter
+public class LoadTestOptions {
+    private URI url = URI.create("ws://localhost:8788/ws");
+    private URI httpUrl;
+    private int members = 1000;
+    private long memberIdOffset = 1_000_000L;
+    private int[] roomSizes = {2, 10, 100};
+    private int[] roomSizeWeights = {70, 25, 5};
+    private double absentRatio = 0.1;
+    private int rate = 200;
+    private int messageSize = 64;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    private int connectConcurrency = 200;
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("--key=value 형태가 아닌 인자 : " + arg);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions();
+        String value;
+        if ((value = values.remove("url")) != null) options.url = URI.create(value);
+        if ((value = values.remove("http-url")) != null) options.httpUrl = URI.create(value);
+        if ((value = values.remove("members")) != null) options.members = Integer.parseInt(value);
+        if ((value = values.remove("member-id-offset")) != null) options.memberIdOffset = Long.parseLong(value);
+        if ((value = values.remove("room-sizes")) != null) options.parseRoomSizes(value);
+        if ((value = values.remove("absent-ratio")) != null) options.absentRatio = Double.parseDouble(value);
+        if ((value = values.remove("rate")) != null) options.rate = Integer.parseInt(value);
+        if ((value = values.remove("message-size")) != null) options.messageSize = Integer.parseInt(value);
+        if ((value = values.remove("warmup")) != null) options.warmup = Duration.ofSeconds(Long.parseLong(value));
+        if ((value = values.remove("duration")) != null) options.duration = Duration.ofSeconds(Long.parseLong(value));
+        if ((value = values.remove("connect-concurrency")) != null) options.connectConcurrency = Integer.parseInt(value);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("알 수 없는 옵션 : " + values.keySet());
+        }
+
+        if (options.httpUrl == null) {
+            String scheme = options.url.getScheme().equals("wss") ? "https" : "http";
+            options.httpUrl = URI.create(scheme + "://" + options.url.getAuthority());
+        }
+        return options;
+    }
+
+    /**
+     * 가중치에 따라 방 크기 하나를 뽑는다
+     */
+    public int nextRoomSize() {
+        int total = 0;
+        for (int weight : roomSizeWeights) {
+            total += weight;
+        }
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < roomSizes.length; i++) {
+            pick -= roomSizeWeights[i];
+            if (pick < 0) {
+                return roomSizes[i];
+            }
+        }
+        return roomSizes[roomSizes.length - 1];
+    }
+
+    private void parseRoomSizes(String value) {
+        String[] entries = value.split(",");
+        roomSizes = new int[entries.length];
+        roomSizeWeights = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            String[] sizeAndWeight = entries[i].split(":");
+            roomSizes[i] = Integer.parseInt(sizeAndWeight[0].trim());
+            roomSizeWeights[i] = sizeAndWeight.length > 1 ? Integer.parseInt(sizeAndWeight[1].trim()) : 1;
+            if (roomSizes[i] < 2) {
+                throw new IllegalArgumentException("방 크기는 2 이상이어야 합니다 : " + entries[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sizes = new StringBuilder();
+        for (int i = 0; i < roomSizes.length; i++) {
+            sizes.append(i == 0 ? "" : ",").append(roomSizes[i]).append(':').append(roomSizeWeights[i]);
+        }
+        return "url=" + url + ", members=" + members + ", room-sizes=" + sizes + ", absent-ratio=" + absentRatio
+                + ", rate=" + rate + "/s, message-size=" + messageSize
+                + ", warmup=" + warmup.toSeconds() + "s, duration=" + duration.toSeconds() + "s";
+    }
+}
@@ -0,0 +1,325 @@
+package com.chat.kit.loadtest;
+
+import com.chat.kit.api.request.RequestChatMessage;
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.cluster.ChatBroadcaster;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.service.ChatRoomPresenceRegistry;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 단일 노드가 버틸 수 있는 부하를 재는 STOMP 부하 생성기.
+ *
+ * 1. /token/system 으로 받은 토큰으로 회원을 만들고, 방 크기 분포에 따라 /chat/room 으로 채팅방을 만든다
+ * 2. 회원마다 /ws 에 시스템 토큰(Authorization) + memberId CONNECT 헤더로 세션을 열고 /sub/myRoom/{id} 와 /sub/chatroom/{roomId} 를 구독한다
+ *    (서버는 chat.websocket.trust-member-id-header=true 로 띄워야 시스템 토큰의 memberId 헤더를 받아 준다)
+ *    (absent-ratio 만큼은 채팅방을 구독하지 않아 상단 알림 경로를 탄다)
+ * 3. 전체 rate 에 맞춰 임의의 회원으로 /pub/message 를 발행하고, 본문에 넣은 발행 시각으로 전달 지연을 잰다
+ * 4. 초마다 구간 값을, 끝나면 측정 구간의 p50/p99/p999 와 초당 처리량을 출력한다
+ *    (상단 알림을 모아 보내는 경우 notification 값은 방마다 마지막 메시지 기준이라 모으는 간격이 포함된다)
+ */
+@Slf4j
+public class StompLoadGenerator {
+    private static final String LATENCY_PREFIX = "lt:";
+    private static final long TICK_MILLIS = 10;
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final WebSocketStompClient stompClient;
+
+    private final LatencyStats roomStats = new LatencyStats("room");
+    private final LatencyStats notificationStats = new LatencyStats("notification");
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sendErrors = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+    private final List<Client> clients = Collections.synchronizedList(new ArrayList<>());
+    private String padding;
+
+    public StompLoadGenerator(LoadTestOptions options) {
+        this.options = options;
+        this.stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        stompClient.setMessageConverter(converter);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("load test : " + options);
+        new StompLoadGenerator(options).run();
+    }
+
+    public void run() throws Exception {
+        padding = "x".repeat(Math.max(0, options.getMessageSize() - LATENCY_PREFIX.length() - 20));
+
+        List<Client> members = setUpMembersAndRooms();
+        connect(members);
+        System.out.printf("connected %d sessions (%d failed)%n", clients.size(), members.size() - clients.size());
+        if (clients.isEmpty()) {
+            return;
+        }
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        scheduler.scheduleAtFixedRate(new Publisher(), 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+
+        long warmupSeconds = options.getWarmup().toSeconds();
+        long totalSeconds = warmupSeconds + options.getDuration().toSeconds();
+        long sentAtMeasureStart = 0;
+        long lastSent = 0;
+        for (long second = 1; second <= totalSeconds; second++) {
+            Thread.sleep(1000);
+            boolean measuring = second > warmupSeconds;
+            if (second == warmupSeconds + 1) {
+                sentAtMeasureStart = lastSent;
+            }
+            long sentNow = sent.sum();
+            Histogram room = roomStats.rollInterval(measuring);
+            Histogram notification = notificationStats.rollInterval(measuring);
+            System.out.printf("%s %3ds sent=%d/s room=%d/s p99=%.2fms notification=%d/s p99=%.2fms errors=%d%n",
+                    measuring ? "[measure]" : "[warmup] ", second, sentNow - lastSent,
+                    room.getTotalCount(), LatencyStats.millis(room.getValueAtPercentile(99)),
+                    notification.getTotalCount(), LatencyStats.millis(notification.getValueAtPercentile(99)),
+                    sendErrors.sum() + transportErrors.sum());
+            lastSent = sentNow;
+        }
+        scheduler.shutdownNow();
+
+        double seconds = options.getDuration().toSeconds();
+        System.out.println("---- result (" + options.getDuration().toSeconds() + "s) ----");
+        System.out.printf("published     %d (%.1f/s), send errors %d, transport errors %d%n",
+                lastSent - sentAtMeasureStart, (lastSent - sentAtMeasureStart) / seconds, sendErrors.sum(), transportErrors.sum());
+        roomStats.printSummary(System.out, seconds);
+        notificationStats.printSummary(System.out, seconds);
+
+        for (Client client : clients) {
+            client.disconnect();
+        }
+        stompClient.stop();
+    }
+
+    /**
+     * 회원을 만들고 방 크기 분포대로 나눠 채팅방을 만든다. 이미 있는 회원/방은 그대로 쓴다.
+     */
+    private List<Client> setUpMembersAndRooms() throws IOException, InterruptedException {
+        String token = systemToken();
+
+        List<Long> memberIds = new ArrayList<>(options.getMembers());
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < options.getMembers(); i++) {
+            long memberId = options.getMemberIdOffset() + i;
+            memberIds.add(memberId);
+            ndjson.append(memberId).append('\n');
+        }
+        // 회원은 /members/import 한번으로 만든다 (이미 있는 회원은 건너뜀), 마지막 줄이 결과
+        String progress = post("/members/import", token, ndjson.toString(), "application/x-ndjson").body().strip();
+        System.out.println("members : " + progress.substring(progress.lastIndexOf('\n') + 1));
+
+        Collections.shuffle(memberIds);
+        List<Client> members = new ArrayList<>(memberIds.size());
+        int rooms = 0;
+        for (int from = 0; from < memberIds.size(); ) {
+            int size = Math.min(options.nextRoomSize(), memberIds.size() - from);
+            if (size < 2) {
+                break;
+            }
+            List<Long> roomMembers = memberIds.subList(from, from + size);
+            JsonNode response = objectMapper.readTree(post("/chat/room", token,
+                    objectMapper.writeValueAsString(Map.of("memberIds", roomMembers))).body());
+            long roomId = response.path("data").path("roomId").asLong();
+            for (Long memberId : roomMembers) {
+                boolean absent = ThreadLocalRandom.current().nextDouble() < options.getAbsentRatio();
+                members.add(new Client(memberId, roomId, absent));
+            }
+            from += size;
+            rooms++;
+        }
+        System.out.printf("set up %d members in %d rooms%n", members.size(), rooms);
+        return members;
+    }
+
+    private void connect(List<Client> members) throws IOException, InterruptedException {
+        // 모든 세션이 같은 시스템 토큰으로 연결하므로 서버의 JWT 검증 캐시가 재연결 폭주를 흡수하는지도 함께 본다
+        String token = systemToken();
+        Semaphore inFlight = new Semaphore(options.getConnectConcurrency());
+        CountDownLatch done = new CountDownLatch(members.size());
+        for (Client client : members) {
+            inFlight.acquire();
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("Authorization", "Bearer " + token);
+            connectHeaders.add("memberId", String.valueOf(client.memberId));
+            stompClient.connectAsync(options.getUrl(), new WebSocketHttpHeaders(), connectHeaders, client)
+                    .whenComplete((session, e) -> {
+                        if (e != null) {
+                            log.warn("member {} 연결 실패 : {}", client.memberId, e.toString());
+                        } else {
+                            clients.add(client);
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+    }
+
+    private String systemToken() throws IOException, InterruptedException {
+        return objectMapper.readTree(post("/token/system", null, "{}").body()).get("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, String token, String body) throws IOException, InterruptedException {
+        return post(path, token, body, "application/json");
+    }
+
+    private HttpResponse<String> post(String path, String token, String body, String contentType) throws IOException, InterruptedException {
+        return httpClient.send(request(path, token, body, contentType), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path, String token, String body, String contentType) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.getHttpUrl() + path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    /**
+     * TICK_MILLIS 마다 rate 에 맞는 수만큼 임의의 회원으로 발행한다. 소수점 이하는 다음 tick 으로 넘긴다.
+     */
+    private class Publisher implements Runnable {
+        private double carry;
+
+        @Override
+        public void run() {
+            carry += options.getRate() * TICK_MILLIS / 1000.0;
+            int count = (int) carry;
+            carry -= count;
+            for (int i = 0; i < count; i++) {
+                Client client = clients.get(ThreadLocalRandom.current().nextInt(clients.size()));
+                client.publish();
+            }
+        }
+    }
+
+    /**
+     * 회원 한명의 STOMP 세션
+     */
+    private class Client extends StompSessionHandlerAdapter {
+        private final long memberId;
+        private final long roomId;
+        private final boolean absent;
+        private volatile StompSession session;
+
+        Client(long memberId, long roomId, boolean absent) {
+            this.memberId = memberId;
+            this.roomId = roomId;
+            this.absent = absent;
+        }
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            this.session = session;
+            session.subscribe(ChatBroadcaster.MY_ROOM_DESTINATION_PREFIX + memberId, this);
+            if (!absent) {
+                session.subscribe(ChatRoomPresenceRegistry.CHAT_ROOM_DESTINATION_PREFIX + roomId, this);
+            }
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return isNotification(headers) ? JsonNode.class : ChatRoomMessagesResponse.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long receivedNanos = System.nanoTime();
+            if (!isNotification(headers)) {
+                record(roomStats, ((ChatRoomMessagesResponse) payload).getMessage(), receivedNanos);
+                return;
+            }
+            // 모아 보내기(ChatNotificationResponse) 면 방마다 마지막 메시지 기준, 아니면 메시지 하나
+            JsonNode notification = (JsonNode) payload;
+            if (notification.has("rooms")) {
+                for (JsonNode room : notification.get("rooms")) {
+                    record(notificationStats, room.path("lastMessage").path("message").asText(null), receivedNanos);
+                }
+            } else {
+                record(notificationStats, notification.path("message").asText(null), receivedNanos);
+            }
+        }
+
+        private boolean isNotification(StompHeaders headers) {
+            String destination = headers.getDestination();
+            return destination != null && destination.startsWith(ChatBroadcaster.MY_ROOM_DESTINATION_PREFIX);
+        }
+
+        private void record(LatencyStats stats, String message, long receivedNanos) {
+            if (message == null || !message.startsWith(LATENCY_PREFIX)) {
+                return;
+            }
+            int end = message.indexOf(':', LATENCY_PREFIX.length());
+            stats.record(Long.parseLong(message, LATENCY_PREFIX.length(), end, 10), receivedNanos);
+        }
+
+        void publish() {
+            StompSession current = session;
+            if (current == null || !current.isConnected()) {
+                sendErrors.increment();
+                return;
+            }
+            String message = LATENCY_PREFIX + System.nanoTime() + ":" + padding;
+            try {
+                current.send("/pub/message", new RequestChatMessage(memberId, roomId, message, ChatType.TEXT));
+                sent.increment();
+            } catch (RuntimeException e) {
+                sendErrors.increment();
+            }
+        }
+
+        void disconnect() {
+            StompSession current = session;
+            if (current != null && current.isConnected()) {
+                current.disconnect();
+            }
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload, Throwable exception) {
+            log.warn("member {} frame 처리 실패", memberId, exception);
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            transportErrors.increment();
+            log.warn("member {} 전송 오류 : {}", memberId, exception.toString());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.chat.kit.api.request;
+
+import com.chat.kit.customException.InvalidCursorException;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 메시지 keyset 페이징 커서 (sentAt, messageId).
+ * 문자열 형식은 "{sentAt epoch microseconds}_{messageId}" 이다.
+ */
+@Getter
+public class MessageCursor {
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private final LocalDateTime sentAt;
+    private final Long messageId;
+
+    private MessageCursor(LocalDateTime sentAt, Long messageId) {
+        this.sentAt = sentAt;
+        this.messageId = messageId;
+    }
+
+    public static MessageCursor of(LocalDateTime sentAt, Long messageId) {
+        return new MessageCursor(sentAt, messageId);
+    }
+
+    public static MessageCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int separator = cursor.indexOf('_');
+        if (separator <= 0) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+        try {
+            long epochMicros = Long.parseLong(cursor.substring(0, separator));
+            long messageId = Long.parseLong(cursor.substring(separator + 1));
+            LocalDateTime sentAt = LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(epochMicros, MICROS_PER_SECOND),
+                    (int) Math.floorMod(epochMicros, MICROS_PER_SECOND) * 1000,
+                    ZoneOffset.UTC);
+            return new MessageCursor(sentAt, messageId);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        long epochMicros = sentAt.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + sentAt.getNano() / 1000;
+        return epochMicros + "_" + messageId;
+    }
+}
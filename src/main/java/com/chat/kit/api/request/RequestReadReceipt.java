@@ -0,0 +1,20 @@
+package com.chat.kit.api.request;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * /pub/read : roomId 채팅방에서 messageId 까지 읽음
+ */
+@Getter
+@NoArgsConstructor
+public class RequestReadReceipt {
+
+    private Long roomId;
+    private Long messageId;
+
+    public RequestReadReceipt(Long roomId, Long messageId) {
+        this.roomId = roomId;
+        this.messageId = messageId;
+    }
+}
@@ -0,0 +1,28 @@
+package com.chat.kit.api.response.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * chat.notification.window-ms > 0 일 때 /sub/myRoom/{memberId} 로 보내는 상단 알림 (window 동안 모은 것).
+ * window-ms=0(기본)이면 상단 알림은 메시지마다 ChatRoomMessagesResponse 로 보낸다.
+ * 프레임은 NotificationCoalescer 가 직접 만든다. 이 클래스는 형태를 보여주고 받는 쪽에서 읽을 때 쓴다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatNotificationResponse {
+    private List<RoomNotification> rooms;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RoomNotification {
+        private Long roomId;
+        private int count;                          // 모으는 동안 이 방에 온 메시지 수
+        private ChatRoomMessagesResponse lastMessage;
+    }
+}
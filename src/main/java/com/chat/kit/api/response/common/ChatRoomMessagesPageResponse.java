@@ -0,0 +1,30 @@
+package com.chat.kit.api.response.common;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ChatRoomMessagesPageResponse {
+    private List<ChatRoomMessagesResponse> messages; // 항상 오래된 메시지 -> 최신 메시지 순
+    private String beforeCursor; // 이보다 이전 메시지를 조회할 때 before 로 넘길 값 (첫 메시지 기준)
+    private String afterCursor;  // 이후 메시지를 조회할 때 after 로 넘길 값 (마지막 메시지 기준)
+    private boolean hasMore;     // 요청한 방향으로 더 조회할 메시지가 있는지
+
+    public static ChatRoomMessagesPageResponse of(List<ChatRoomMessagesResponse> messages, boolean hasMore){
+        String beforeCursor = null;
+        String afterCursor = null;
+        if(!messages.isEmpty()){
+            beforeCursor = messages.get(0).cursor();
+            afterCursor = messages.get(messages.size() - 1).cursor();
+        }
+        return ChatRoomMessagesPageResponse.builder()
+                .messages(messages)
+                .beforeCursor(beforeCursor)
+                .afterCursor(afterCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -1,14 +1,20 @@
 package com.chat.kit.api.response.common;
 
+import com.chat.kit.api.request.MessageCursor;
 import com.chat.kit.persistence.domain.ChatMessage;
 import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.persistence.projection.ChatMessageView;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class ChatRoomMessagesResponse {
     private Long messageId;
     private Long roomId;
@@ -27,4 +33,22 @@ public class ChatRoomMessagesResponse {
                 .chatType(chatMessage.getChatType())
                 .build();
     }
+
+    public static ChatRoomMessagesResponse of(ChatMessageView chatMessage){
+        return ChatRoomMessagesResponse.builder()
+                .messageId(chatMessage.getId())
+                .senderId(chatMessage.getMemberId())
+                .roomId(chatMessage.getRoomId())
+                .message(chatMessage.getMessage())
+                .createdAt(chatMessage.getSentAt())
+                .chatType(chatMessage.getChatType())
+                .build();
+    }
+
+    /**
+     * 이 메시지 위치를 가리키는 페이징 커서
+     */
+    public String cursor(){
+        return MessageCursor.of(createdAt, messageId).encode();
+    }
 }
@@ -0,0 +1,21 @@
+package com.chat.kit.api.response.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 회원 일괄 등록 진행 상황. chunk 하나를 반영할 때마다 NDJSON 한 줄로 보낸다 (값은 누적).
+ * 마지막 줄은 done=true 이고, 중간에 실패하면 error 에 이유를 담는다. 그 전 chunk 들은 이미 반영되어 있다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberImportProgress {
+    private int chunks;
+    private long received;
+    private long inserted;
+    private long skipped;
+    private boolean done;
+    private String error;
+}
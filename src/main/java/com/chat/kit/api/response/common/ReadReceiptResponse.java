@@ -0,0 +1,28 @@
+package com.chat.kit.api.response.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * /sub/chatroom/{roomId}/read 로 보내는 메시지별 읽은 사람 수.
+ * readCounts 는 messageId 오름차순이고, 메시지 m 을 읽은 사람 수는 messageId &gt;= m 인 첫 항목의 readCount 이다
+ * (그런 항목이 없으면 0). 매번 방 전체 값을 보내므로 마지막으로 받은 것만 쓰면 된다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptResponse {
+    private Long roomId;
+    private List<ReadCount> readCounts;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReadCount {
+        private Long messageId;
+        private int readCount;
+    }
+}
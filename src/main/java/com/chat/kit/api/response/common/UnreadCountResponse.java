@@ -0,0 +1,21 @@
+package com.chat.kit.api.response.common;
+
+import com.chat.kit.persistence.projection.UnreadCountView;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UnreadCountResponse {
+    private Long roomId;
+    private int unreadCount;
+    private Long lastReadMessageId;
+
+    public static UnreadCountResponse of(UnreadCountView view){
+        return UnreadCountResponse.builder()
+                .roomId(view.getRoomId())
+                .unreadCount(view.getUnreadCount())
+                .lastReadMessageId(view.getLastReadMessageId())
+                .build();
+    }
+}
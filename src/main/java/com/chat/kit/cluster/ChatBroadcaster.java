@@ -0,0 +1,165 @@
+package com.chat.kit.cluster;
+
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.api.response.common.ReadReceiptResponse;
+import com.chat.kit.service.ChatRoomPresenceRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * 채팅 메시지 / 알림 전달 창구.
+ * 메시지는 ChatEventBus 로 한번만 발행하고, 각 노드는 받은 이벤트를 자기 노드의 구독자에게만 전달한다.
+ * 이 노드의 채팅방 입장/퇴장도 버스로 알려서 다른 노드의 presence 확인에 쓰이게 한다.
+ * 메시지는 encode 로 한번만 JSON 직렬화하고, 그 byte[] 를 모든 목적지에 그대로 넘긴다 (메시지 컨버터를 거치지 않음).
+ * 상단 알림은 기본으로 메시지마다 바로 보낸다 (예전과 같은 ChatRoomMessagesResponse).
+ * chat.notification.window-ms 를 0 보다 크게 주면 그 동안 회원별로 모아 {@link com.chat.kit.api.response.common.ChatNotificationResponse} 로 보낸다.
+ * 알림 형태가 바뀌므로 클라이언트가 새 형태를 읽을 수 있을 때만 켠다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatBroadcaster {
+    public static final String MY_ROOM_DESTINATION_PREFIX = "/sub/myRoom/";
+    public static final String READ_DESTINATION_SUFFIX = "/read";
+
+    private final ChatEventBus chatEventBus;
+    private final SimpMessageSendingOperations template;
+    private final ChatRoomPresenceRegistry chatRoomPresenceRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.notification.window-ms:0}")
+    private long notificationWindowMillis;
+    private NotificationCoalescer notificationCoalescer;
+
+    @PostConstruct
+    void init() {
+        if (notificationWindowMillis > 0) {
+            notificationCoalescer = new NotificationCoalescer(notificationWindowMillis,
+                    (memberId, frame) -> send(MY_ROOM_DESTINATION_PREFIX + memberId, frame));
+        }
+        chatEventBus.subscribe(this::onEvent);
+        chatRoomPresenceRegistry.addListener(this::publishPresence);
+    }
+
+    @PreDestroy
+    void close() {
+        if (notificationCoalescer != null) {
+            notificationCoalescer.close();
+        }
+    }
+
+    /**
+     * 메시지를 한번 직렬화한다. 반환값은 sendToRoom / notifyMembers 에 같이 넘겨서 재사용한다.
+     */
+    public EncodedChatMessage encode(ChatRoomMessagesResponse message) {
+        return new EncodedChatMessage(message, toJson(message));
+    }
+
+    /**
+     * 현재 채팅방에 들어와 있는 사람들에게 전송
+     */
+    public void sendToRoom(Long roomId, EncodedChatMessage message) {
+        chatEventBus.publish(ChatEvent.builder()
+                .type(ChatEvent.Type.ROOM_MESSAGE)
+                .roomId(roomId)
+                .message(message.getMessage())
+                .payload(message.getPayload())
+                .build());
+    }
+
+    /**
+     * 상단 알림용. 회원들이 어느 노드에 연결되어 있든 한번의 이벤트로 보낸다.
+     */
+    public void notifyMembers(long[] memberIds, EncodedChatMessage message) {
+        if (memberIds.length == 0) {
+            return;
+        }
+        chatEventBus.publish(ChatEvent.builder()
+                .type(ChatEvent.Type.MEMBER_NOTIFICATION)
+                .memberIds(memberIds)
+                .message(message.getMessage())
+                .payload(message.getPayload())
+                .build());
+    }
+
+    /**
+     * 이 노드의 /sub/chatroom/{roomId}/read 구독자에게 메시지별 읽은 사람 수 전송 (각 노드가 자기 구독자에게 보냄)
+     */
+    public void sendReadCounts(ReadReceiptResponse response) {
+        send(ChatRoomPresenceRegistry.CHAT_ROOM_DESTINATION_PREFIX + response.getRoomId() + READ_DESTINATION_SUFFIX, toJson(response));
+    }
+
+    private void onEvent(ChatEvent event) {
+        boolean local = chatEventBus.getNodeId().equals(event.getNodeId());
+        switch (event.getType()) {
+            case ROOM_MESSAGE -> send(ChatRoomPresenceRegistry.CHAT_ROOM_DESTINATION_PREFIX + event.getRoomId(), payloadOf(event));
+            case MEMBER_NOTIFICATION -> {
+                byte[] payload = payloadOf(event);
+                for (long memberId : event.getMemberIds()) {
+                    if (notificationCoalescer != null) {
+                        notificationCoalescer.add(memberId, event.getMessage().getRoomId(), payload);
+                    } else {
+                        send(MY_ROOM_DESTINATION_PREFIX + memberId, payload);
+                    }
+                }
+            }
+            case PRESENCE_JOIN, PRESENCE_LEAVE -> {
+                if (!local) {
+                    chatRoomPresenceRegistry.applyRemote(event.getNodeId(), event.getRoomId(), event.getMemberId(),
+                            event.getType() == ChatEvent.Type.PRESENCE_JOIN);
+                }
+            }
+            // 새로 연결된 노드가 이 노드의 presence 를 알 수 있도록 전체를 다시 보낸다 (받는 쪽에서 중복은 무시됨)
+            case NODE_UP -> chatRoomPresenceRegistry.forEachLocal(this::publishPresence);
+            case NODE_DOWN -> {
+                log.info("cluster 노드 {} presence 제거", event.getNodeId());
+                chatRoomPresenceRegistry.clearRemote(event.getNodeId());
+            }
+        }
+    }
+
+    // 다른 노드에서 온 이벤트는 payload 가 없으므로 이벤트당 한번 직렬화
+    private byte[] payloadOf(ChatEvent event) {
+        if (event.getPayload() == null) {
+            event.setPayload(toJson(event.getMessage()));
+        }
+        return event.getPayload();
+    }
+
+    /**
+     * 직렬화된 payload 를 그대로 broker 로 보낸다. 목적지마다 헤더만 새로 만들고 payload 배열은 공유한다.
+     */
+    private void send(String destination, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        template.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    private byte[] toJson(Object message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("채팅 메시지 직렬화 실패", e);
+        }
+    }
+
+    private void publishPresence(long roomId, long memberId, boolean joined) {
+        chatEventBus.publish(ChatEvent.builder()
+                .type(joined ? ChatEvent.Type.PRESENCE_JOIN : ChatEvent.Type.PRESENCE_LEAVE)
+                .roomId(roomId)
+                .memberId(memberId)
+                .build());
+    }
+}
@@ -0,0 +1,37 @@
+package com.chat.kit.cluster;
+
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 노드 사이에 주고받는 채팅 이벤트.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatEvent {
+    private Type type;
+    private String nodeId;   // 이벤트를 발행한 노드
+    private Long roomId;
+    private Long memberId;
+    private long[] memberIds;
+    private Long messageId;
+    private ChatRoomMessagesResponse message;
+    @JsonIgnore
+    private byte[] payload;  // message 를 직렬화해 둔 값 (발행한 노드 안에서만 유효, 다른 노드는 받은 뒤 한번 직렬화)
+
+    public enum Type {
+        ROOM_MESSAGE,        // /sub/chatroom/{roomId} 구독자에게 전달
+        MEMBER_NOTIFICATION, // memberIds 각각의 /sub/myRoom/{memberId} 로 전달
+        PRESENCE_JOIN,
+        PRESENCE_LEAVE,
+        READ_RECEIPT,        // memberId 가 roomId 에서 messageId 까지 읽음 (ReadReceiptService)
+        NODE_UP,             // (로컬 전용) 다른 노드와 연결됨
+        NODE_DOWN            // (로컬 전용) nodeId 노드와 연결이 끊김
+    }
+}
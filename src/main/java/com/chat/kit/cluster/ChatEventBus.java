@@ -0,0 +1,18 @@
+package com.chat.kit.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * 노드 간 채팅 이벤트 pub/sub.
+ * publish 한 이벤트는 이 노드를 포함한 모든 노드의 구독자에게 한번씩 전달된다.
+ */
+public interface ChatEventBus {
+    String getNodeId();
+
+    void publish(ChatEvent event);
+
+    void subscribe(Consumer<ChatEvent> listener);
+
+    default void close() {
+    }
+}
@@ -0,0 +1,16 @@
+package com.chat.kit.cluster;
+
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JSON 으로 한번만 직렬화해 둔 채팅 메시지.
+ * payload 는 모든 목적지 / 모든 세션에 같은 배열을 그대로 쓰므로 수정하면 안된다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EncodedChatMessage {
+    private final ChatRoomMessagesResponse message; // 다른 노드로 보낼 때 사용
+    private final byte[] payload;
+}
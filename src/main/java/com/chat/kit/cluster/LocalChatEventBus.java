@@ -0,0 +1,33 @@
+package com.chat.kit.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 단일 노드용. 발행한 스레드에서 바로 구독자에게 전달한다.
+ */
+public class LocalChatEventBus implements ChatEventBus {
+    private final String nodeId;
+    private final List<Consumer<ChatEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public LocalChatEventBus(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(ChatEvent event) {
+        event.setNodeId(nodeId);
+        listeners.forEach(listener -> listener.accept(event));
+    }
+
+    @Override
+    public void subscribe(Consumer<ChatEvent> listener) {
+        listeners.add(listener);
+    }
+}
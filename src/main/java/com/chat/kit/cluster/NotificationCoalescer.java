@@ -0,0 +1,134 @@
+package com.chat.kit.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * 상단 알림 모아 보내기.
+ * 회원별로 windowMillis 동안 들어온 알림을 모아 두었다가, 회원당 프레임 하나로 보낸다.
+ * 프레임에는 방마다 마지막 메시지와 그 사이 들어온 메시지 수가 들어간다 (ChatNotificationResponse 형태).
+ *
+ *  {"rooms":[{"roomId":1,"count":3,"lastMessage":{...}}, ...]}
+ *
+ * 메시지는 이미 직렬화된 payload 를 그대로 이어 붙이므로 회원마다 다시 직렬화하지 않는다.
+ * 바쁜 그룹 채팅방이 있어도 회원 한명이 받는 알림 프레임은 초당 1000 / windowMillis 개를 넘지 않는다.
+ */
+@Slf4j
+public class NotificationCoalescer implements AutoCloseable {
+    private static final byte[] ROOMS_START = "{\"rooms\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ROOMS_END = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private final long windowMillis;
+    private final BiConsumer<Long, byte[]> sender;
+    private final ConcurrentHashMap<Long, Map<Long, Pending>> pendingByMember = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param sender (memberId, 프레임) 을 받아 /sub/myRoom/{memberId} 로 보낸다
+     */
+    public NotificationCoalescer(long windowMillis, BiConsumer<Long, byte[]> sender) {
+        this.windowMillis = windowMillis;
+        this.sender = sender;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-notification-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushSafely, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * 회원의 알림 버퍼에 메시지를 추가한다. 같은 방이면 마지막 메시지만 남기고 수를 센다.
+     */
+    public void add(long memberId, long roomId, byte[] payload) {
+        pendingByMember.compute(memberId, (id, rooms) -> {
+            if (rooms == null) {
+                rooms = new LinkedHashMap<>();
+            }
+            Pending pending = rooms.get(roomId);
+            if (pending == null) {
+                rooms.put(roomId, new Pending(payload));
+            } else {
+                pending.lastPayload = payload;
+                pending.count++;
+            }
+            return rooms;
+        });
+    }
+
+    /**
+     * 모아 둔 알림을 모두 보낸다
+     */
+    public void flush() {
+        for (Long memberId : pendingByMember.keySet()) {
+            Map<Long, Pending> rooms = pendingByMember.remove(memberId);
+            if (rooms != null) {
+                sender.accept(memberId, toFrame(rooms));
+            }
+        }
+    }
+
+    /**
+     * 남은 알림을 보내고 멈춘다
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(windowMillis + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("알림 전송 실패", e);
+        }
+    }
+
+    private static byte[] toFrame(Map<Long, Pending> rooms) {
+        int size = ROOMS_START.length + ROOMS_END.length;
+        for (Pending pending : rooms.values()) {
+            size += pending.lastPayload.length + 64;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.writeBytes(ROOMS_START);
+        boolean first = true;
+        for (Map.Entry<Long, Pending> entry : rooms.entrySet()) {
+            String head = (first ? "" : ",") + "{\"roomId\":" + entry.getKey()
+                    + ",\"count\":" + entry.getValue().count + ",\"lastMessage\":";
+            out.writeBytes(head.getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(entry.getValue().lastPayload);
+            out.write('}');
+            first = false;
+        }
+        out.writeBytes(ROOMS_END);
+        return out.toByteArray();
+    }
+
+    private static class Pending {
+        private byte[] lastPayload;
+        private int count = 1;
+
+        Pending(byte[] payload) {
+            this.lastPayload = payload;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.chat.kit.cluster;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * TCP 로 노드끼리 직접 연결하는 이벤트 버스 (full mesh).
+ *
+ * 각 노드는 bindAddress 로 다른 노드의 연결을 받고, peers 에 적힌 노드마다 하나씩 연결을 맺어 이벤트를 한 줄짜리 JSON 으로 보낸다.
+ * 연결이 끊기면 다시 연결될 때까지 재시도하고, 그동안 쌓을 수 있는 양을 넘는 이벤트는 버린다 (chat.cluster.outbox.dropped{peer}).
+ * 쓰는 중에 연결이 끊겨 flush 되지 못한 이벤트는 다시 연결한 뒤 먼저 보낸다. (상대가 이미 받았다면 한번 더 받을 수 있다)
+ * 채팅 메시지는 발행한 노드에서 직렬화해 둔 payload 를 그대로 이벤트 줄에 넣어 보내고 다시 직렬화하지 않는다.
+ * 자기 자신이 발행한 이벤트는 네트워크를 거치지 않고 바로 전달한다.
+ *
+ * 연결을 받으면 먼저 임의의 nonce 를 보내고, 상대가 공유 secret 으로 만든 HMAC-SHA256(nonce) 을 돌려줘야 이벤트를 받는다.
+ * secret 을 모르는 곳에서는 이벤트를 넣을 수 없다 (chat.cluster.auth.failures). 내용은 암호화하지 않으므로 노드 사이 내부망에서만 쓴다.
+ */
+@Slf4j
+public class TcpChatEventBus implements ChatEventBus {
+    private static final int OUTBOX_CAPACITY = 10_000;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    // flush 하지 않고 쌓아 두는 최대 줄 수 (연결이 끊겼을 때 다시 보낼 양)
+    private static final int MAX_UNFLUSHED_LINES = 256;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final String nodeId;
+    private final InetSocketAddress bindAddress;
+    private final List<InetSocketAddress> peers;
+    private final SecretKeySpec secret;
+    private final ObjectMapper objectMapper;
+    // message 를 빼고 직렬화 (message 는 payload 를 그대로 붙인다)
+    private final ObjectMapper withoutMessageMapper;
+    private final MeterRegistry meterRegistry;
+    private final Counter authFailureCounter;
+    private final SecureRandom random = new SecureRandom();
+    private final List<Consumer<ChatEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final List<PeerConnection> connections = new ArrayList<>();
+    private final List<Socket> inboundSockets = new CopyOnWriteArrayList<>();
+
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public TcpChatEventBus(String nodeId, InetSocketAddress bindAddress, List<InetSocketAddress> peers, String secret,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("cluster secret 이 필요합니다 (chat.cluster.secret)");
+        }
+        this.nodeId = nodeId;
+        this.bindAddress = bindAddress;
+        this.peers = peers;
+        this.secret = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.objectMapper = objectMapper;
+        this.withoutMessageMapper = objectMapper.copy()
+                .addMixIn(ChatEvent.class, WithoutMessage.class)
+                .disable(SerializationFeature.INDENT_OUTPUT);
+        this.meterRegistry = meterRegistry;
+        this.authFailureCounter = meterRegistry.counter("chat.cluster.auth.failures");
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(bindAddress);
+        running = true;
+        startDaemon(this::acceptLoop, "chat-cluster-accept");
+        for (InetSocketAddress peer : peers) {
+            PeerConnection connection = new PeerConnection(peer);
+            connections.add(connection);
+            startDaemon(connection::sendLoop, "chat-cluster-peer-" + peer);
+        }
+        log.info("cluster event bus 시작 (nodeId={}, address={}, peers={})", nodeId, serverSocket.getLocalSocketAddress(), peers);
+    }
+
+    public int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(ChatEvent event) {
+        event.setNodeId(nodeId);
+        deliver(event);
+
+        String line;
+        try {
+            line = encode(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("could not serialize chat event", e);
+        }
+        connections.forEach(connection -> connection.send(line));
+    }
+
+    /**
+     * 이벤트 한 줄. payload 가 있으면 message 자리에 payload(이미 직렬화된 JSON)를 그대로 넣는다
+     */
+    String encode(ChatEvent event) throws JsonProcessingException {
+        if (event.getPayload() == null) {
+            return objectMapper.writeValueAsString(event);
+        }
+        String json = withoutMessageMapper.writeValueAsString(event);
+        StringBuilder line = new StringBuilder(json.length() + event.getPayload().length + 16);
+        line.append(json, 0, json.length() - 1);
+        if (json.length() > 2) {
+            line.append(',');
+        }
+        line.append("\"message\":")
+                .append(new String(event.getPayload(), StandardCharsets.UTF_8))
+                .append('}');
+        return line.toString();
+    }
+
+    @Override
+    public void subscribe(Consumer<ChatEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(serverSocket);
+        inboundSockets.forEach(TcpChatEventBus::closeQuietly);
+        connections.forEach(PeerConnection::close);
+    }
+
+    private void deliver(ChatEvent event) {
+        for (Consumer<ChatEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.error("chat event 처리 실패: {}", event.getType(), e);
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                inboundSockets.add(socket);
+                startDaemon(() -> readLoop(socket), "chat-cluster-inbound-" + socket.getRemoteSocketAddress());
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("cluster 연결 수락 실패", e);
+                }
+            }
+        }
+    }
+
+    private void readLoop(Socket socket) {
+        String remoteNodeId = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            if (!authenticate(socket, reader)) {
+                authFailureCounter.increment();
+                log.warn("cluster 연결 인증 실패, 연결을 끊습니다: {}", socket.getRemoteSocketAddress());
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ChatEvent event = objectMapper.readValue(line, ChatEvent.class);
+                if (nodeId.equals(event.getNodeId())) {
+                    continue;
+                }
+                remoteNodeId = event.getNodeId();
+                deliver(event);
+            }
+        } catch (IOException e) {
+            if (running) {
+                log.warn("cluster 노드 {} 연결 끊김", remoteNodeId, e);
+            }
+        } finally {
+            inboundSockets.remove(socket);
+            closeQuietly(socket);
+            if (remoteNodeId != null && running) {
+                deliver(ChatEvent.builder().type(ChatEvent.Type.NODE_DOWN).nodeId(remoteNodeId).build());
+            }
+        }
+    }
+
+    /**
+     * 연결을 받은 쪽 : nonce 를 보내고 HMAC(nonce) 응답을 확인한다
+     */
+    private boolean authenticate(Socket socket, BufferedReader reader) throws IOException {
+        byte[] nonce = new byte[32];
+        random.nextBytes(nonce);
+        String challenge = Base64.getEncoder().encodeToString(nonce);
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        writer.write(challenge + "\n");
+        writer.flush();
+
+        String response;
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        try {
+            response = reader.readLine();
+        } catch (SocketTimeoutException e) {
+            return false;
+        }
+        socket.setSoTimeout(0);
+        return response != null && MessageDigest.isEqual(
+                sign(challenge).getBytes(StandardCharsets.US_ASCII), response.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String sign(String challenge) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            return Base64.getEncoder().encodeToString(mac.doFinal(challenge.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void startDaemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @JsonIgnoreProperties("message")
+    private abstract static class WithoutMessage {
+    }
+
+    /**
+     * 다른 노드 하나로 나가는 연결. 보낼 이벤트는 outbox 에 쌓였다가 전용 스레드에서 순서대로 쓴다.
+     */
+    private class PeerConnection {
+        private final InetSocketAddress address;
+        private final BlockingQueue<String> outbox = new ArrayBlockingQueue<>(OUTBOX_CAPACITY);
+        private final Counter droppedCounter;
+        // 썼지만 아직 flush 하지 않은 줄. 쓰다가 연결이 끊기면 다시 연결한 뒤 먼저 보낸다 (sendLoop 스레드만 사용)
+        private final List<String> unflushed = new ArrayList<>();
+        private volatile Socket socket;
+
+        private PeerConnection(InetSocketAddress address) {
+            this.address = address;
+            this.droppedCounter = meterRegistry.counter("chat.cluster.outbox.dropped", "peer", address.toString());
+        }
+
+        private void send(String line) {
+            if (!outbox.offer(line)) {
+                droppedCounter.increment();
+                log.warn("cluster 노드 {} 전송 대기열이 가득 차서 이벤트를 버립니다", address);
+            }
+        }
+
+        private void sendLoop() {
+            while (running) {
+                try (Socket connected = new Socket()) {
+                    connected.connect(address, (int) RECONNECT_DELAY_MILLIS);
+                    socket = connected;
+                    BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(connected.getOutputStream(), StandardCharsets.UTF_8));
+                    respondToChallenge(connected, writer);
+                    log.info("cluster 노드 {} 연결됨", address);
+                    deliver(ChatEvent.builder().type(ChatEvent.Type.NODE_UP).nodeId(nodeId).build());
+                    resendUnflushed(writer);
+                    while (running) {
+                        String line = outbox.poll(RECONNECT_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                        if (line == null) {
+                            continue;
+                        }
+                        unflushed.add(line);
+                        writer.write(line);
+                        writer.newLine();
+                        // 뒤에 더 쌓인 이벤트가 없거나 다시 보낼 양이 많아졌을 때 flush
+                        if (outbox.isEmpty() || unflushed.size() >= MAX_UNFLUSHED_LINES) {
+                            writer.flush();
+                            unflushed.clear();
+                        }
+                    }
+                } catch (IOException e) {
+                    if (running) {
+                        log.debug("cluster 노드 {} 연결 실패, 재시도", address);
+                        sleepBeforeReconnect();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void resendUnflushed(BufferedWriter writer) throws IOException {
+            if (unflushed.isEmpty()) {
+                return;
+            }
+            log.info("cluster 노드 {} 로 전송하지 못한 이벤트 {}건 다시 보냄", address, unflushed.size());
+            for (String line : unflushed) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+            unflushed.clear();
+        }
+
+        /**
+         * 연결한 쪽 : 받은 nonce 에 HMAC 으로 답한다. 틀리면 상대가 연결을 끊으므로 다음 재연결에서 다시 시도한다.
+         */
+        private void respondToChallenge(Socket connected, BufferedWriter writer) throws IOException {
+            connected.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(connected.getInputStream(), StandardCharsets.US_ASCII));
+            String challenge = reader.readLine();
+            if (challenge == null) {
+                throw new IOException("cluster 노드 " + address + " 가 인증 전에 연결을 끊었습니다");
+            }
+            connected.setSoTimeout(0);
+            writer.write(sign(challenge));
+            writer.newLine();
+            writer.flush();
+        }
+
+        private void sleepBeforeReconnect() {
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void close() {
+            closeQuietly(socket);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.chat.kit.collection;
+
+/**
+ * long 키 해시 테이블 공통 계산 (크기는 항상 2의 거듭제곱, 최대 적재율 0.75)
+ */
+final class LongHashing {
+    private static final int MIN_CAPACITY = 4;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private LongHashing() {
+    }
+
+    // 연속된 id 가 한 곳에 몰리지 않도록 섞는다
+    static int index(long key, int mask) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    static int tableSize(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / 0.75) + 1);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("too many elements : " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    static int resizeAt(int capacity) {
+        return (int) (capacity * 0.75);
+    }
+}
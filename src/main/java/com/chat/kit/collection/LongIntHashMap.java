@@ -0,0 +1,184 @@
+package com.chat.kit.collection;
+
+import java.util.Arrays;
+
+/**
+ * long -&gt; int 해시 맵. Map&lt;Long, Integer&gt; 와 달리 키/값을 객체로 감싸지 않는다.
+ * 구조는 {@link LongHashSet} 과 같다. 없는 키의 값은 0 으로 본다. 스레드 안전하지 않다.
+ */
+public class LongIntHashMap {
+    private long[] keys;
+    private int[] values;
+    private boolean containsZeroKey;
+    private int zeroValue;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public interface Entry {
+        void accept(long key, int value);
+    }
+
+    public LongIntHashMap() {
+        this(8);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(LongHashing.tableSize(expectedSize));
+    }
+
+    public int get(long key) {
+        if (key == 0) {
+            return containsZeroKey ? zeroValue : 0;
+        }
+        int pos = find(key);
+        return (pos < 0) ? 0 : values[pos];
+    }
+
+    public boolean containsKey(long key) {
+        return (key == 0) ? containsZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * 값에 delta 를 더한다 (없으면 0 에서 시작). 결과가 0 이면 키를 지운다.
+     *
+     * @return 더한 뒤의 값
+     */
+    public int addTo(long key, int delta) {
+        if (key == 0) {
+            int result = (containsZeroKey ? zeroValue : 0) + delta;
+            if (result == 0) {
+                if (containsZeroKey) {
+                    containsZeroKey = false;
+                    size--;
+                }
+            } else {
+                if (!containsZeroKey) {
+                    containsZeroKey = true;
+                    size++;
+                }
+                zeroValue = result;
+            }
+            return result;
+        }
+        int pos = LongHashing.index(key, mask);
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                int result = values[pos] + delta;
+                if (result == 0) {
+                    shiftKeys(pos);
+                    size--;
+                } else {
+                    values[pos] = result;
+                }
+                return result;
+            }
+            pos = (pos + 1) & mask;
+        }
+        if (delta != 0) {
+            keys[pos] = key;
+            values[pos] = delta;
+            if (++size >= resizeAt) {
+                rehash(keys.length * 2);
+            }
+        }
+        return delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZeroKey = false;
+        size = 0;
+    }
+
+    public void forEach(Entry action) {
+        if (containsZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        if (containsZeroKey) {
+            result[n++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    private int find(long key) {
+        int pos = LongHashing.index(key, mask);
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    // LongHashSet.shiftKeys 와 같고 값도 같이 옮긴다
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            long current;
+            while (true) {
+                if ((current = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                int slot = LongHashing.index(current, mask);
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int pos = LongHashing.index(oldKeys[i], mask);
+                while (keys[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[i];
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = LongHashing.resizeAt(capacity);
+    }
+}
@@ -0,0 +1,192 @@
+package com.chat.kit.collection;
+
+import java.util.Arrays;
+
+/**
+ * long -&gt; long 해시 맵. Map&lt;Long, Long&gt; 와 달리 키/값을 객체로 감싸지 않는다.
+ * 구조는 {@link LongHashSet} 과 같다. 없는 키의 값은 0 으로 본다. 스레드 안전하지 않다.
+ */
+public class LongLongHashMap {
+    private long[] keys;
+    private long[] values;
+    private boolean containsZeroKey;
+    private long zeroValue;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public interface Entry {
+        void accept(long key, long value);
+    }
+
+    public LongLongHashMap() {
+        this(8);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(LongHashing.tableSize(expectedSize));
+    }
+
+    public long get(long key) {
+        if (key == 0) {
+            return containsZeroKey ? zeroValue : 0;
+        }
+        int pos = find(key);
+        return (pos < 0) ? 0 : values[pos];
+    }
+
+    public boolean containsKey(long key) {
+        return (key == 0) ? containsZeroKey : find(key) >= 0;
+    }
+
+    /**
+     * 값이 지금보다 클 때만 바꾼다 (없으면 넣는다).
+     *
+     * @return 바꿨으면 true
+     */
+    public boolean putIfGreater(long key, long value) {
+        if (key == 0) {
+            if (containsZeroKey && zeroValue >= value) {
+                return false;
+            }
+            if (!containsZeroKey) {
+                containsZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return true;
+        }
+        int pos = LongHashing.index(key, mask);
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                if (values[pos] >= value) {
+                    return false;
+                }
+                values[pos] = value;
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZeroKey) {
+                return false;
+            }
+            containsZeroKey = false;
+            size--;
+            return true;
+        }
+        int pos = find(key);
+        if (pos < 0) {
+            return false;
+        }
+        shiftKeys(pos);
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZeroKey = false;
+        size = 0;
+    }
+
+    public void forEach(Entry action) {
+        if (containsZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public long[] values() {
+        long[] result = new long[size];
+        int n = 0;
+        if (containsZeroKey) {
+            result[n++] = zeroValue;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                result[n++] = values[i];
+            }
+        }
+        return result;
+    }
+
+    private int find(long key) {
+        int pos = LongHashing.index(key, mask);
+        long current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    // LongHashSet.shiftKeys 와 같고 값도 같이 옮긴다
+    private void shiftKeys(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            long current;
+            while (true) {
+                if ((current = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                int slot = LongHashing.index(current, mask);
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int pos = LongHashing.index(oldKeys[i], mask);
+                while (keys[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[i];
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = LongHashing.resizeAt(capacity);
+    }
+}
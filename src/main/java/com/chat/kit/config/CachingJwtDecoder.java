@@ -0,0 +1,103 @@
+package com.chat.kit.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 검증이 끝난 JWT 를 캐시하는 JwtDecoder.
+ * 재배포 직후 재연결이 몰리면 같은 토큰의 RS256 서명 검증이 초당 수천번 반복되므로, 한번 검증한 토큰은 만료 전까지 다시 검증하지 않는다.
+ *
+ * 토큰 원문 대신 SHA-256 해시를 key 로 쓰고, 토큰의 exp 와 maxTtl 중 이른 시각에 만료된다.
+ * 최대 크기를 넘으면 가장 오래 사용되지 않은 토큰부터 제거(LRU)한다. 검증에 실패한 토큰은 캐시하지 않는다.
+ *
+ * 캐시 적중 / 미스 수(chat.jwt.cache{result=hit|miss})와 캐시 크기(chat.jwt.cache.size)를 기록한다.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    private final JwtDecoder delegate;
+    private final Duration maxTtl;
+    private final Clock clock;
+    private final Map<String, CachedJwt> cache;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public CachingJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry, int maxSize, Duration maxTtl, Clock clock) {
+        this.delegate = delegate;
+        this.maxTtl = maxTtl;
+        this.clock = clock;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedJwt> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hitCounter = meterRegistry.counter("chat.jwt.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("chat.jwt.cache", "result", "miss");
+        meterRegistry.gauge("chat.jwt.cache.size", cache, map -> size());
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (token == null) {
+            return delegate.decode(null);
+        }
+        String key = hash(token);
+        Instant now = clock.instant();
+        CachedJwt cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+            if (cached != null && !now.isBefore(cached.expiresAt())) {
+                cache.remove(key);
+                cached = null;
+            }
+        }
+        // 해시가 같더라도 원문이 같은 토큰만 재사용한다
+        if (cached != null && cached.jwt().getTokenValue().equals(token)) {
+            hitCounter.increment();
+            return cached.jwt();
+        }
+
+        missCounter.increment();
+        Jwt jwt = delegate.decode(token);
+        Instant expiresAt = now.plus(maxTtl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+            expiresAt = jwt.getExpiresAt();
+        }
+        if (now.isBefore(expiresAt)) {
+            synchronized (cache) {
+                cache.put(key, new CachedJwt(jwt, expiresAt));
+            }
+        }
+        return jwt;
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedJwt(Jwt jwt, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.chat.kit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * STOMP 채널 처리 시간 / 처리량 측정.
+ * executor 태그(platform / virtual)로 구분되므로 두 모드의 chat.channel.handle 처리량과 지연을 비교할 수 있다.
+ */
+public class ChannelMetricsInterceptor implements ExecutorChannelInterceptor {
+    private final Timer handleTimer;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+    public ChannelMetricsInterceptor(MeterRegistry meterRegistry, String channel, String executor) {
+        Tags tags = Tags.of("channel", channel, "executor", executor);
+        this.handleTimer = Timer.builder("chat.channel.handle")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("chat.channel.in-flight", tags, inFlight);
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        startedAt.set(System.nanoTime());
+        inFlight.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        Long start = startedAt.get();
+        if (start == null) {
+            return;
+        }
+        startedAt.remove();
+        inFlight.decrementAndGet();
+        handleTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
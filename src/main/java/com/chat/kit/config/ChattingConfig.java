@@ -1,35 +1,92 @@
 package com.chat.kit.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+// 메시지 브로커 활성화는 WebSocketBrokerConfig 가 한다 (@EnableWebSocketMessageBroker 대신)
 @Configuration
 @RequiredArgsConstructor
-@EnableWebSocketMessageBroker
 public class ChattingConfig  implements WebSocketMessageBrokerConfigurer {
     private final StompInterceptor stompInterceptor;
+    private final MeterRegistry meterRegistry;
+    private final SlowConsumerInterceptor slowConsumerInterceptor;
+
+    // platform : 스프링 기본 고정 크기 스레드풀, virtual : 메시지마다 virtual thread (동시 실행 수 제한)
+    @Value("${chat.websocket.executor:platform}")
+    private String executorMode;
+    @Value("${chat.websocket.inbound-concurrency:256}")
+    private int inboundConcurrency;
+    @Value("${chat.websocket.outbound-concurrency:256}")
+    private int outboundConcurrency;
+    @Value("${chat.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+    @Value("${chat.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+    @Value("${chat.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // stomp 접속 주소 url = ws://localhost:8080/ws, 프로토콜이 http가 아니다!
         registry.addEndpoint("/ws") // 연결될 엔드포인트 wss
                 .setAllowedOrigins("http://localhost:3000",  "http://127.0.0.1:3000","http://localhost:3001", "http://storyb.kr", "http://chat.storyb.kr")
                 .setAllowedOrigins("*");
+        // virtual thread 모드에서는 세션마다 받은 순서대로 처리되도록 보장
+        registry.setPreserveReceiveOrder(isVirtual());
     }
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // 메시지를 구독(수신)하는 요청 엔드포인트
+        // simple broker 는 이 노드의 구독자에게만 전달하므로, 여러 노드 간 전달은 ChatEventBus(chat.cluster.mode) 가 맡는다
         registry.enableSimpleBroker("/sub");
         // 메시지를 발행(송신)하는 엔드포인트
         registry.setApplicationDestinationPrefixes("/pub");
+        registry.setPreservePublishOrder(isVirtual());
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(stompInterceptor);
+        registration.interceptors(stompInterceptor, new ChannelMetricsInterceptor(meterRegistry, "inbound", executorMode));
+        if (isVirtual()) {
+            // receiveMessage 는 RoomDispatcher lane 에 넣기만 하고 저장은 lane 스레드가 하므로 커넥션 풀 크기에 묶지 않는다.
+            // 남은 DB 작업(SUBSCRIBE 읽음 처리 등)은 풀에서 커넥션을 기다리고, 메시지가 몰리면 lane 이 넣는 쪽을 기다리게 한다
+            registration.executor(virtualThreadExecutor("inbound", inboundConcurrency));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelMetricsInterceptor(meterRegistry, "outbound", executorMode), slowConsumerInterceptor);
+        if (isVirtual()) {
+            registration.executor(virtualThreadExecutor("outbound", outboundConcurrency));
+        }
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // 세션 하나가 이 시간 넘게 쓰고 있거나 송신 버퍼가 이 크기를 넘으면 연결을 끊는다 (느린 구독자 정책은 SlowConsumerInterceptor)
+        registration.setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    private VirtualThreadChannelExecutor virtualThreadExecutor(String channel, int maxConcurrency) {
+        VirtualThreadChannelExecutor executor = new VirtualThreadChannelExecutor("ws-" + channel + "-vt-", maxConcurrency);
+        Tags tags = Tags.of("channel", channel);
+        meterRegistry.gauge("chat.channel.executor.active", tags, executor, VirtualThreadChannelExecutor::getActiveCount);
+        meterRegistry.gauge("chat.channel.executor.waiting", tags, executor, VirtualThreadChannelExecutor::getWaitingCount);
+        return executor;
+    }
+
+    private boolean isVirtual() {
+        return "virtual".equalsIgnoreCase(executorMode);
     }
 }
@@ -0,0 +1,64 @@
+package com.chat.kit.config;
+
+import com.chat.kit.cluster.ChatEventBus;
+import com.chat.kit.cluster.LocalChatEventBus;
+import com.chat.kit.cluster.TcpChatEventBus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 노드 간 메시지 전달 방식 설정.
+ *  chat.cluster.mode=local : 단일 노드 (기본값)
+ *  chat.cluster.mode=tcp   : chat.cluster.peers 에 적힌 노드들과 TCP 로 직접 연결
+ *                            chat.cluster.bind-address:port 로 연결을 받고, 모든 노드가 같은 chat.cluster.secret 을 써야 한다
+ */
+@Slf4j
+@Configuration
+public class ClusterConfig {
+
+    @Bean(destroyMethod = "close")
+    public ChatEventBus chatEventBus(ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${chat.cluster.mode:local}") String mode,
+                                     @Value("${chat.cluster.node-id:}") String nodeId,
+                                     @Value("${chat.cluster.bind-address:127.0.0.1}") String bindAddress,
+                                     @Value("${chat.cluster.port:9788}") int port,
+                                     @Value("${chat.cluster.peers:}") String peers,
+                                     @Value("${chat.cluster.secret:}") String secret) throws IOException {
+        String resolvedNodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        if ("tcp".equalsIgnoreCase(mode)) {
+            TcpChatEventBus bus = new TcpChatEventBus(resolvedNodeId, new InetSocketAddress(bindAddress, port),
+                    parsePeers(peers), secret, objectMapper, meterRegistry);
+            bus.start();
+            return bus;
+        }
+        return new LocalChatEventBus(resolvedNodeId);
+    }
+
+    // "host1:port1,host2:port2"
+    private static List<InetSocketAddress> parsePeers(String peers) {
+        List<InetSocketAddress> result = new ArrayList<>();
+        for (String peer : peers.split(",")) {
+            String trimmed = peer.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("chat.cluster.peers 형식이 잘못되었습니다: " + trimmed);
+            }
+            result.add(new InetSocketAddress(trimmed.substring(0, separator), Integer.parseInt(trimmed.substring(separator + 1))));
+        }
+        return result;
+    }
+}
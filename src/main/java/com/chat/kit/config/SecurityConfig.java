@@ -1,16 +1,28 @@
 package com.chat.kit.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.converter.RsaKeyConverters;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -40,6 +52,21 @@ public class SecurityConfig {
         return http.build();
     }
 
-
+    /**
+     * REST(oauth2ResourceServer) 와 STOMP CONNECT(StompInterceptor) 가 함께 쓰는 JwtDecoder.
+     * public_key.pem 으로 RS256 서명을 검증하고, 검증된 토큰은 {@link CachingJwtDecoder} 에 만료 전까지 보관한다.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(@Value("${spring.security.oauth2.resourceserver.jwt.public-key-location}") Resource publicKeyLocation,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${chat.jwt-cache.max-size:10000}") int maxSize,
+                                 @Value("${chat.jwt-cache.max-ttl-seconds:300}") long maxTtlSeconds) throws IOException {
+        RSAPublicKey publicKey;
+        try (InputStream inputStream = publicKeyLocation.getInputStream()) {
+            publicKey = RsaKeyConverters.x509().convert(inputStream);
+        }
+        JwtDecoder delegate = NimbusJwtDecoder.withPublicKey(publicKey).build();
+        return new CachingJwtDecoder(delegate, meterRegistry, maxSize, Duration.ofSeconds(maxTtlSeconds), Clock.systemUTC());
+    }
 
 }
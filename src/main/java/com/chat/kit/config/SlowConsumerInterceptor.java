@@ -0,0 +1,190 @@
+package com.chat.kit.config;
+
+import com.chat.kit.cluster.ChatBroadcaster;
+import com.chat.kit.dispatch.HotRoomTracker;
+import com.chat.kit.service.ChatRoomPresenceRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 느린 구독자 처리 (outbound 채널 interceptor).
+ *
+ * 세션 송신 버퍼({@link SlowConsumerSessionDecorator})에 chat.websocket.slow-consumer.buffer-bytes 이상 쌓여 있거나
+ * 쓰기 하나가 chat.websocket.slow-consumer.send-ms 보다 오래 걸리고 있으면 느린 구독자로 보고,
+ * 채팅 메시지(/sub/chatroom, /sub/myRoom)를 chat.websocket.slow-consumer.policy 에 따라 처리한다.
+ *  - drop       : 버린다
+ *  - conflate   : 목적지별로 마지막 메시지만 남겼다가 따라잡으면 보낸다
+ *  - disconnect : 그대로 보내고, 송신 버퍼 / 송신 시간 제한(chat.websocket.send-*)을 넘으면 연결을 끊는다
+ * 핫 룸({@link HotRoomTracker}) 메시지는 정책과 관계없이 conflate 한다.
+ *
+ * conflate 된 메시지에는 건너뛴 메시지 수를 STOMP 헤더 conflated 로 넣으므로
+ * 클라이언트는 /chat/{roomId}/messages?after= 로 빠진 메시지를 채울 수 있다.
+ * 어떤 정책이든 송신 버퍼 / 송신 시간 제한을 넘으면 연결은 끊긴다.
+ *
+ * 세션별 송신 버퍼 크기(chat.websocket.session.buffered.bytes, 1초마다), 버린 수 / conflate 된 수 / 끊은 수
+ * (chat.websocket.slow-consumer.dropped, .conflated, .disconnects)를 기록한다.
+ */
+@Slf4j
+@Component
+public class SlowConsumerInterceptor implements ChannelInterceptor {
+    public static final String CONFLATED_HEADER = "conflated";
+
+    private final HotRoomTracker hotRoomTracker;
+    private final SlowConsumerPolicy policy;
+    private final long slowSendMillis;
+    private final int slowBufferBytes;
+    private final Map<String, SlowConsumerSessionDecorator> sessions = new ConcurrentHashMap<>();
+    private final Counter droppedCounter;
+    private final Counter policyConflatedCounter;
+    private final Counter hotRoomConflatedCounter;
+    private final Counter disconnectCounter;
+    private final DistributionSummary bufferedBytes;
+    private final AtomicLong totalBufferedBytes = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    public SlowConsumerInterceptor(HotRoomTracker hotRoomTracker,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${chat.websocket.slow-consumer.policy:conflate}") SlowConsumerPolicy policy,
+                                   @Value("${chat.websocket.slow-consumer.send-ms:200}") long slowSendMillis,
+                                   @Value("${chat.websocket.slow-consumer.buffer-bytes:65536}") int slowBufferBytes) {
+        this.hotRoomTracker = hotRoomTracker;
+        this.policy = policy;
+        this.slowSendMillis = slowSendMillis;
+        this.slowBufferBytes = slowBufferBytes;
+        this.droppedCounter = meterRegistry.counter("chat.websocket.slow-consumer.dropped");
+        this.policyConflatedCounter = meterRegistry.counter("chat.websocket.slow-consumer.conflated", "reason", "policy");
+        this.hotRoomConflatedCounter = meterRegistry.counter("chat.websocket.slow-consumer.conflated", "reason", "hot-room");
+        this.disconnectCounter = meterRegistry.counter("chat.websocket.slow-consumer.disconnects");
+        this.bufferedBytes = DistributionSummary.builder("chat.websocket.session.buffered.bytes")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("chat.websocket.buffered.bytes", totalBufferedBytes);
+    }
+
+    @PostConstruct
+    void start() {
+        // 세션 버퍼 크기 기록, 그리고 쓰기가 끝난 뒤에 남은 conflate 메시지가 없도록 주기적으로도 확인한다
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-slow-consumer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sample, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * SubProtocolWebSocketHandler 가 세션을 감쌀 때 호출한다 (WebSocketBrokerConfig)
+     */
+    public WebSocketSession decorate(WebSocketSession session, int sendTimeLimit, int sendBufferSizeLimit) {
+        SlowConsumerSessionDecorator decorator = new SlowConsumerSessionDecorator(
+                session, sendTimeLimit, sendBufferSizeLimit, disconnectCounter, this::flushIfCaughtUp);
+        sessions.put(session.getId(), decorator);
+        return decorator;
+    }
+
+    public void remove(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SlowConsumerSessionDecorator session = (sessionId != null) ? sessions.get(sessionId) : null;
+        if (session == null) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (!session.isSlow(slowSendMillis, slowBufferBytes)) {
+            // 따라잡았지만 아직 내보내지 않은 이전 메시지가 있으면, 그 메시지를 이 메시지로 덮어쓰고 바로 보낸다
+            if (destination != null && session.conflateIfPending(destination, message, channel)) {
+                flushIfCaughtUp(session);
+                return null;
+            }
+            return message;
+        }
+
+        Long roomId = ChatRoomPresenceRegistry.parseRoomId(destination);
+        if (roomId != null && hotRoomTracker.isHot(roomId)) {
+            session.conflate(destination, message, channel);
+            hotRoomConflatedCounter.increment();
+            return null;
+        }
+        if (!isChatDestination(destination)) {
+            return message;
+        }
+        return switch (policy) {
+            case DROP -> {
+                droppedCounter.increment();
+                yield null;
+            }
+            case CONFLATE -> {
+                session.conflate(destination, message, channel);
+                policyConflatedCounter.increment();
+                yield null;
+            }
+            case DISCONNECT -> message;
+        };
+    }
+
+    private static boolean isChatDestination(String destination) {
+        return destination != null
+                && (destination.startsWith(ChatRoomPresenceRegistry.CHAT_ROOM_DESTINATION_PREFIX)
+                || destination.startsWith(ChatBroadcaster.MY_ROOM_DESTINATION_PREFIX));
+    }
+
+    private void flushIfCaughtUp(SlowConsumerSessionDecorator session) {
+        if (session.conflated.isEmpty() || session.isSlow(slowSendMillis, slowBufferBytes)) {
+            return;
+        }
+        session.flushConflated(latest -> {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(latest.message());
+            accessor.setNativeHeader(CONFLATED_HEADER, String.valueOf(latest.skipped()));
+            latest.channel().send(MessageBuilder.createMessage(latest.message().getPayload(), accessor.getMessageHeaders()));
+        });
+    }
+
+    private void sample() {
+        try {
+            long total = 0;
+            for (SlowConsumerSessionDecorator session : sessions.values()) {
+                int buffered = session.getBufferSize();
+                bufferedBytes.record(buffered);
+                total += buffered;
+                flushIfCaughtUp(session);
+            }
+            totalBufferedBytes.set(total);
+        } catch (RuntimeException e) {
+            log.error("느린 구독자 확인 실패", e);
+        }
+    }
+}
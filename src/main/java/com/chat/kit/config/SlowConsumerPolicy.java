@@ -0,0 +1,10 @@
+package com.chat.kit.config;
+
+/**
+ * 느린 구독자(세션 송신 버퍼가 밀린 세션)에게 보낼 메시지 처리 방법
+ */
+public enum SlowConsumerPolicy {
+    DROP,       // 밀려 있는 동안 온 메시지는 버린다
+    CONFLATE,   // 목적지별로 마지막 메시지만 남겼다가 따라잡으면 보낸다
+    DISCONNECT  // 그대로 쌓고, 송신 버퍼 / 송신 시간 제한을 넘으면 연결을 끊는다
+}
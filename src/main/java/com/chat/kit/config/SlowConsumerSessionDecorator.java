@@ -0,0 +1,99 @@
+package com.chat.kit.config;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 세션 송신 버퍼. 스프링 기본 decorator 와 같이 send-time-limit / send-buffer-size-limit 를 넘으면 연결을 끊고,
+ * 끊은 수를 센다. conflation 된 메시지(목적지별 마지막 메시지)도 세션마다 여기에 보관한다.
+ *
+ * conflate / flush 는 세션마다 lock 하나로 묶어서, 먼저 온 메시지가 나중에 온 메시지보다 늦게 채널로 나가지 않게 한다.
+ */
+public class SlowConsumerSessionDecorator extends ConcurrentWebSocketSessionDecorator {
+    private final Counter disconnectCounter;
+    private final Consumer<SlowConsumerSessionDecorator> afterSend;
+    // destination -> 아직 보내지 않은 마지막 메시지
+    final Map<String, Conflated> conflated = new ConcurrentHashMap<>();
+    private final Object conflationLock = new Object();
+
+    record Conflated(Message<?> message, MessageChannel channel, int skipped) {
+    }
+
+    public SlowConsumerSessionDecorator(WebSocketSession delegate, int sendTimeLimit, int bufferSizeLimit,
+                                        Counter disconnectCounter, Consumer<SlowConsumerSessionDecorator> afterSend) {
+        super(delegate, sendTimeLimit, bufferSizeLimit, OverflowStrategy.TERMINATE);
+        this.disconnectCounter = disconnectCounter;
+        this.afterSend = afterSend;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        try {
+            super.sendMessage(message);
+        } catch (SessionLimitExceededException e) {
+            disconnectCounter.increment();
+            throw e;
+        }
+        afterSend.accept(this);
+    }
+
+    public boolean isSlow(long slowSendMillis, int slowBufferBytes) {
+        return getTimeSinceSendStarted() > slowSendMillis || getBufferSize() > slowBufferBytes;
+    }
+
+    // 건너뛴 수는 이전에 건너뛴 것 + 이번에 덮어쓴 메시지 하나 (+ 내보냈다가 다시 conflate 된 메시지면 그 메시지가 건너뛴 수)
+    void conflate(String destination, Message<?> message, MessageChannel channel) {
+        int carried = skippedOf(message);
+        synchronized (conflationLock) {
+            conflated.merge(destination, new Conflated(message, channel, carried),
+                    (previous, next) -> new Conflated(message, channel, previous.skipped() + 1 + carried));
+        }
+    }
+
+    /**
+     * destination 에 아직 보내지 않은 메시지가 있으면 message 로 덮어쓴다.
+     * 느린 상태가 풀린 직후 온 메시지를 바로 보내면 남아 있던 이전 메시지가 그 뒤에 나가므로, 이 경우에도 conflate 한다.
+     *
+     * @return 덮어썼으면 true
+     */
+    boolean conflateIfPending(String destination, Message<?> message, MessageChannel channel) {
+        synchronized (conflationLock) {
+            if (!conflated.containsKey(destination)) {
+                return false;
+            }
+            conflate(destination, message, channel);
+            return true;
+        }
+    }
+
+    /**
+     * 보관중인 메시지를 모두 꺼내 sender 로 보낸다. 보내는 동안 다시 conflate 된 메시지는 다음 flush 에서 보낸다.
+     */
+    void flushConflated(Consumer<Conflated> sender) {
+        synchronized (conflationLock) {
+            for (String destination : new ArrayList<>(conflated.keySet())) {
+                Conflated latest = conflated.remove(destination);
+                if (latest != null) {
+                    sender.accept(latest);
+                }
+            }
+        }
+    }
+
+    private static int skippedOf(Message<?> message) {
+        String skipped = NativeMessageHeaderAccessor.getFirstNativeHeader(SlowConsumerInterceptor.CONFLATED_HEADER, message.getHeaders());
+        return skipped == null ? 0 : Integer.parseInt(skipped);
+    }
+}
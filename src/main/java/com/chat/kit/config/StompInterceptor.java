@@ -1,9 +1,13 @@
 package com.chat.kit.config;
 
+import com.chat.kit.myutil_token.system.util.JwtProperties;
 import com.chat.kit.persistence.domain.MemberChatRoom;
 import com.chat.kit.persistence.repository.MemberChatRoomRepository;
-import lombok.RequiredArgsConstructor;
+import com.chat.kit.service.ChatRoomPresenceRegistry;
+import com.chat.kit.service.UnreadCounterService;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -23,10 +27,48 @@ import java.time.LocalDateTime;
 @Slf4j
 @Component
 @Transactional
-@RequiredArgsConstructor
 public class StompInterceptor implements ChannelInterceptor {
+    private static final String SYSTEM_ROLE = "SYSTEM";
+
     private final JwtDecoder jwtDecoder;
     private final MemberChatRoomRepository memberChatRoomRepository;
+    private final ChatRoomPresenceRegistry chatRoomPresenceRegistry;
+    private final UnreadCounterService unreadCounterService;
+    private final boolean trustMemberIdHeader;
+
+    public StompInterceptor(JwtDecoder jwtDecoder,
+                            MemberChatRoomRepository memberChatRoomRepository,
+                            ChatRoomPresenceRegistry chatRoomPresenceRegistry,
+                            UnreadCounterService unreadCounterService,
+                            @Value("${chat.websocket.trust-member-id-header:false}") boolean trustMemberIdHeader) {
+        this.jwtDecoder = jwtDecoder;
+        this.memberChatRoomRepository = memberChatRoomRepository;
+        this.chatRoomPresenceRegistry = chatRoomPresenceRegistry;
+        this.unreadCounterService = unreadCounterService;
+        this.trustMemberIdHeader = trustMemberIdHeader;
+    }
+
+    /**
+     * 방에서 나갈 때(UNSUBSCRIBE / DISCONNECT 로 마지막 구독이 끊길 때)도 읽음 처리한다.
+     * 방에 있는 동안 받은 메시지는 안 읽은 수에 더해지지 않으므로, 안 읽은 메시지 목록(lastLeavedTime 이후 메시지)도
+     * 나간 시점부터 세어야 안 읽은 수와 맞는다.
+     */
+    @PostConstruct
+    void init() {
+        chatRoomPresenceRegistry.addListener((roomId, memberId, joined) -> {
+            if (!joined) {
+                markReadOnLeave(roomId, memberId);
+            }
+        });
+    }
+
+    private void markReadOnLeave(long roomId, long memberId) {
+        try {
+            unreadCounterService.markRead(roomId, memberId);
+        } catch (RuntimeException e) {
+            log.warn("채팅방 {} 퇴장 읽음 처리 실패 (memberId {}) : {}", roomId, memberId, e.toString());
+        }
+    }
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -39,21 +81,33 @@ public class StompInterceptor implements ChannelInterceptor {
             if (StompCommand.CONNECT.equals(accessor.getCommand())) {
                 log.info("CONNECT 부분 해석 시작");
 
-                String memberIdHeader = accessor.getFirstNativeHeader("memberId");
-                log.info("memberIdHeader : {} ", memberIdHeader);
+                Long memberId = authenticate(accessor);
+                // JwtAuthenticationToken 을 쓰면 에러가 나서 UsernamePasswordAuthenticationToken 에 memberId 를 담는다
+                Authentication user = new UsernamePasswordAuthenticationToken(memberId.toString(), null, null);
+                accessor.setUser(user); // 세션에 사용자 정보 설정
+                log.info("{} 멤버 소켓 연결", memberId);
+            }
 
-                if (memberIdHeader != null) {
-                    Long memberId = Long.parseLong(memberIdHeader);
-                    // JWT 사용안하는데 JwtAuthenticationToken 썼더니 에러났다. UsernamePasswordAuthenticationToken 을 쓰니 해결됬다.
-                    Authentication user = new UsernamePasswordAuthenticationToken(memberId.toString(), null, null); //
-                    accessor.setUser(user); // 세션에 사용자 정보 설정
-                    log.info("{} 멤버 소켓 연결", memberId);
-                } else {
-                    log.info("CONNECT 메시지에 memberId가 누락되었습니다.");
-                    throw new RuntimeException("memberId 헤더가 없습니다.");
+            // SUBSCRIBE 처리 부분 : 채팅방 구독이면 presence 인덱스에 등록하고 안 읽은 메시지 수를 초기화
+            else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+                if (accessor.getUser() != null) {
+                    Long memberId = Long.parseLong(accessor.getUser().getName());
+                    Long roomId = chatRoomPresenceRegistry.subscribe(
+                            accessor.getSessionId(),
+                            accessor.getSubscriptionId(),
+                            memberId,
+                            accessor.getDestination());
+                    if (roomId != null) {
+                        unreadCounterService.markRead(roomId, memberId);
+                    }
                 }
             }
 
+            // UNSUBSCRIBE 처리 부분 : UNSUBSCRIBE 프레임에는 destination 이 없어서 subscriptionId 로 찾는다
+            else if (StompCommand.UNSUBSCRIBE.equals(accessor.getCommand())) {
+                chatRoomPresenceRegistry.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+            }
+
             // DISCONNECT 처리 부분
             else if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
                 log.info("DISCONNECT 메시지 처리 시작");
@@ -64,8 +118,8 @@ public class StompInterceptor implements ChannelInterceptor {
 
                     // 추가적으로 어떤 이유로 DISCONNECT가 호출되는지 원인을 파악
                     if (memberId != null) {
-                        log.info("사용자 {}의 마지막 연결 시간 업데이트 중...", memberId);
-                        // 실제로 DB 업데이트 로직이 필요하다면 여기에 작성
+                        // 읽음 위치는 /pub/read 로 받아 ReadReceiptService 가 주기적으로 DB 에 반영한다
+                        log.info("사용자 {} 연결 종료", memberId);
                     } else {
                         log.info("DISCONNECT 메시지에 사용자 정보가 없습니다.");
                     }
@@ -80,4 +134,35 @@ public class StompInterceptor implements ChannelInterceptor {
         return message;
     }
 
+    /**
+     * CONNECT 의 Authorization 헤더(Bearer 토큰)를 jwtDecoder 로 검증하고 토큰의 memberId claim 으로 연결한다.
+     * chat.websocket.trust-member-id-header=true 일 때만 memberId 헤더를 믿는다 (토큰 없는 예전 방식, 시스템 토큰 + memberId 헤더).
+     * 부하 테스트처럼 회원 토큰 없이 여러 회원으로 연결해야 하는 환경에서만 켠다.
+     */
+    private Long authenticate(StompHeaderAccessor accessor) {
+        String memberIdHeader = accessor.getFirstNativeHeader(JwtProperties.MEMBER_ID);
+        String authorization = accessor.getFirstNativeHeader(JwtProperties.HEADER_NAME);
+
+        if (authorization == null || !authorization.startsWith(JwtProperties.TOKEN_PREFIX)) {
+            if (trustMemberIdHeader && memberIdHeader != null) {
+                return Long.parseLong(memberIdHeader);
+            }
+            log.info("CONNECT 메시지에 토큰이 누락되었습니다.");
+            throw new RuntimeException("Authorization 헤더가 없습니다.");
+        }
+
+        // 서명 검증 실패 / 만료된 토큰은 JwtException 으로 연결이 거절된다
+        Jwt jwt = jwtDecoder.decode(authorization.substring(JwtProperties.BEGIN_INDEX));
+        Object memberIdClaim = jwt.getClaims().get(JwtProperties.MEMBER_ID);
+        if (memberIdClaim != null) {
+            return Long.parseLong(memberIdClaim.toString());
+        }
+        // /token/system 은 누구나 받을 수 있으므로 시스템 토큰의 memberId 헤더는 명시적으로 허용한 경우에만 믿는다
+        if (trustMemberIdHeader && SYSTEM_ROLE.equals(jwt.getClaimAsString(JwtProperties.ROLE)) && memberIdHeader != null) {
+            return Long.parseLong(memberIdHeader);
+        }
+        log.info("CONNECT 토큰에 memberId 가 없습니다.");
+        throw new RuntimeException("토큰에 memberId 가 없습니다.");
+    }
+
 }
@@ -0,0 +1,52 @@
+package com.chat.kit.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * STOMP 채널용 executor. 작업마다 virtual thread 를 하나씩 띄우고, 동시에 실행되는 작업 수는 maxConcurrency 로 제한한다.
+ * (inbound 는 chat.websocket.inbound-concurrency, outbound 는 chat.websocket.outbound-concurrency)
+ *
+ * 실행 허가는 virtual thread 를 띄우기 전에 execute 를 호출한 스레드가 받는다. 모두 사용중이면 호출한 쪽이 기다리므로
+ * 메시지가 몰려도 기다리는 작업(스레드와 메시지)이 끝없이 쌓이지 않고, 웹소켓을 읽는 쪽이 느려진다(backpressure).
+ */
+public class VirtualThreadChannelExecutor implements Executor {
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final ThreadFactory threadFactory;
+
+    public VirtualThreadChannelExecutor(String threadNamePrefix, int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.threadFactory = Thread.ofVirtual().name(threadNamePrefix, 0).factory();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        permits.acquireUninterruptibly();
+        try {
+            threadFactory.newThread(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            }).start();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 실행 허가를 기다리는 호출 수
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+}
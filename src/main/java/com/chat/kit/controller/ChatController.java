@@ -2,47 +2,57 @@ package com.chat.kit.controller;
 
 import com.chat.kit.api.request.FindChatRoomDto;
 import com.chat.kit.api.request.RequestChatMessage;
+import com.chat.kit.api.request.RequestReadReceipt;
 import com.chat.kit.api.response.ApiResponse;
 import com.chat.kit.api.response.common.ChatRoomListResponse;
+import com.chat.kit.api.response.common.ChatRoomMessagesPageResponse;
 import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.api.response.common.UnreadCountResponse;
 import com.chat.kit.api.response.common.error.ErrorCode;
 import com.chat.kit.api.response.common.success.ResponseCode;
+import com.chat.kit.cluster.ChatBroadcaster;
+import com.chat.kit.cluster.EncodedChatMessage;
+import com.chat.kit.dispatch.RoomDispatcher;
 import com.chat.kit.persistence.domain.ChatMessage;
 import com.chat.kit.persistence.domain.Member;
-import com.chat.kit.persistence.repository.ChatMessageRepository;
-import com.chat.kit.persistence.repository.MemberChatRoomRepository;
+import com.chat.kit.service.ChatMessageExportService;
 import com.chat.kit.service.ChatService;
+import com.chat.kit.service.ReadReceiptService;
+import com.chat.kit.service.UnreadCounterService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
-import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.security.Principal;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 //@RequestMapping("/chat")
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class ChatController {
+    private static final int EXPORT_GZIP_BUFFER_SIZE = 8192;
+    private static final String APPLICATION_GZIP_VALUE = "application/gzip";
+
     private final ChatService chatService;
-    private final SimpMessageSendingOperations template;
-    private List<Long> onChattingMembers = new ArrayList<>();
-    private final MemberChatRoomRepository memberChatRoomRepository;
-    private final ChatMessageRepository chatMessageRepository;
-    private final SimpUserRegistry simpUserRegistry;
+    private final ChatBroadcaster chatBroadcaster;
+    private final RoomDispatcher roomDispatcher;
+    private final UnreadCounterService unreadCounterService;
+    private final ReadReceiptService readReceiptService;
+    private final ChatMessageExportService chatMessageExportService;
 
 
     //특정 회원의 채팅 목록 조회
 
     /**
      * 현재 로그인한 회원이 참여중인  (1:1 혹은 그룹 ) 채팅방 목록 반환
+     * 마지막 메시지가 최신인 방부터 정렬되고, 메시지가 없는 방은 맨 뒤에 온다
      */
     @GetMapping("/chat/chatRooms")
     public ApiResponse<List<ChatRoomListResponse>> getChatRoomList(@AuthenticationPrincipal Member loginMember) {
@@ -66,62 +76,79 @@ public class ChatController {
     }
 
     /**
-     * 채팅방의id 를 받아 (1:1 혹은 그룹 )채팅방의 메세지들을 반환.
+     * 채팅방의id 를 받아 (1:1 혹은 그룹 )채팅방의 메세지들을 커서 기반으로 나눠서 반환.
+     * before / after : 이전 응답의 beforeCursor / afterCursor, size : 페이지 크기 (최대 ChatService.MAX_MESSAGE_PAGE_SIZE)
      * */
     @GetMapping("/chat/{roomId}/messages")
-    public ApiResponse<List<ChatRoomMessagesResponse>> getChatMessages(@PathVariable Long roomId){
-
-        List<ChatMessage> chatMessages = chatService.findChatMessages(roomId);
-        List<ChatRoomMessagesResponse> data = chatMessages.stream()
-                .map(ChatRoomMessagesResponse::of)
-                .collect(Collectors.toList());
-        return ApiResponse.response(ResponseCode.OK, data);
+    public ApiResponse<ChatRoomMessagesPageResponse> getChatMessages(@PathVariable Long roomId,
+                                                                     @RequestParam(required = false) String before,
+                                                                     @RequestParam(required = false) String after,
+                                                                     @RequestParam(required = false) Integer size){
+        return ApiResponse.response(ResponseCode.OK, chatService.findChatMessages(roomId, before, after, size));
+    }
 
+    /**
+     * 채팅방 전체 메시지를 gzip 으로 압축한 NDJSON 파일(chatroom-{roomId}.ndjson.gz)로 내려받는다 (sentAt, messageId 오름차순, 한 줄에 메시지 하나).
+     * 압축된 파일 그대로 저장되도록 Content-Encoding 없이 application/gzip 으로 보낸다. 시스템 토큰 또는 채팅방 참여자만 가능
+     * after : 이 messageId 다음 메시지부터, 끊긴 내보내기를 마지막으로 받은 messageId 로 이어받을 때 사용
+     * */
+    @GetMapping("/chat/{roomId}/messages/export")
+    public void exportChatMessages(@PathVariable Long roomId,
+                                   @RequestParam(required = false) Long after,
+                                   HttpServletResponse response) throws IOException {
+        ChatMessageExportService.ExportStart start = chatMessageExportService.prepare(roomId, after);
+
+        response.setContentType(APPLICATION_GZIP_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"chatroom-" + roomId + ".ndjson.gz\"");
+        GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream(), EXPORT_GZIP_BUFFER_SIZE);
+        chatMessageExportService.export(start, gzip);
+        gzip.finish();
     }
 
     /**
-     * 현재 로그인한 멤버가 읽지 않은 메시지들을 반환
+     * 현재 로그인한 멤버가 읽지 않은 메시지들을 커서 기반으로 나눠서 반환
      * */
     @GetMapping("/chat/unread-chats")
-    public ApiResponse<List<ChatRoomMessagesResponse>> findUnreadChats(@AuthenticationPrincipal Member loginMember){
-        List<ChatRoomMessagesResponse> unreadChats = chatService.findUnreadChats(loginMember.getId());
-        return ApiResponse.response(ResponseCode.OK, unreadChats);
+    public ApiResponse<ChatRoomMessagesPageResponse> findUnreadChats(@AuthenticationPrincipal Member loginMember,
+                                                                     @RequestParam(required = false) String after,
+                                                                     @RequestParam(required = false) Integer size){
+        return ApiResponse.response(ResponseCode.OK, chatService.findUnreadChats(loginMember.getId(), after, size));
+    }
+
+    /**
+     * 현재 로그인한 멤버의 채팅방별 안 읽은 메시지 수 (0 인 방은 제외)
+     * */
+    @GetMapping("/chat/unread-counts")
+    public ApiResponse<List<UnreadCountResponse>> findUnreadCounts(@AuthenticationPrincipal Member loginMember){
+        return ApiResponse.response(ResponseCode.OK, unreadCounterService.findUnreadCounts(loginMember.getId()));
     }
 
     //메시지 송신 및 수신, /pub가 생략된 모습. 클라이언트 단에선 /pub/message로 요청
+    //같은 방의 메시지는 순서대로 처리되도록 방별 lane 에 넘긴다
     @MessageMapping("/message")
-    @Transactional
     public void receiveMessage(@RequestBody RequestChatMessage chat) {
         log.info("{} 받음",chat);
+        roomDispatcher.dispatch(chat.getRoomId(), () -> handleMessage(chat));
+    }
 
+    //읽음 확인, 클라이언트 단에선 /pub/read 로 (roomId, messageId) 를 보낸다
+    @MessageMapping("/read")
+    public void receiveReadReceipt(@RequestBody RequestReadReceipt receipt, Principal principal) {
+        if (principal == null) {
+            return;
+        }
+        readReceiptService.markRead(receipt.getRoomId(), Long.parseLong(principal.getName()), receipt.getMessageId());
+    }
+
+    private void handleMessage(RequestChatMessage chat) {
         // 메시지를 저장
         ChatMessage chatMessage = chatService.saveMessage(chat);
-        // 메시지를 해당 채팅방 구독자들에게 전송
-        template.convertAndSend("/sub/chatroom/"+chat.getRoomId(), ChatRoomMessagesResponse.of(chatMessage));//현재 방에 들어와있는 사람
+        // 메시지를 해당 채팅방 구독자들에게 전송 (다른 노드에 연결된 구독자 포함)
+        EncodedChatMessage response = chatBroadcaster.encode(ChatRoomMessagesResponse.of(chatMessage));
+        chatBroadcaster.sendToRoom(chat.getRoomId(), response);//현재 방에 들어와있는 사람
         log.info("메시지를 채팅방 {} 구독자들에게 전송 완료",chat.getRoomId());
 
-        Set<Long> allChatMemberIds = memberChatRoomRepository.findByChatRoomId(chat.getRoomId()).stream()
-                .filter(mcr -> !mcr.getMember().getId().equals(chat.getSenderId()))
-                .map(mcr -> mcr.getMember().getId())
-                .collect(Collectors.toSet());
-
-        Set<Long> inChatRoomMemberIds = simpUserRegistry.getUsers().stream()
-                .filter(
-                        user -> user.getSessions().stream()
-                                .anyMatch(
-                                        session -> session.getSubscriptions().stream()
-                                                .anyMatch(sub -> sub.getDestination().equals("/sub/chatroom/"+chat.getRoomId()))
-                                )
-                )
-                .map(user -> Long.parseLong(user.getName()))
-                .collect(Collectors.toSet());
-
-        allChatMemberIds.removeAll(inChatRoomMemberIds);
-
-        // 상단 알림용
-        allChatMemberIds.forEach(memberId -> {
-            template.convertAndSend("/sub/myRoom/"+memberId, ChatRoomMessagesResponse.of(chatMessage));
-        });
-
+        // 상단 알림용 : 보낸 사람과 현재 방에 들어와 있는 회원은 제외
+        chatBroadcaster.notifyMembers(unreadCounterService.findAbsentMemberIds(chat.getRoomId(), chat.getSenderId()), response);
     }
 }
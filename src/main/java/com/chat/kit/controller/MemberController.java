@@ -3,23 +3,40 @@ package com.chat.kit.controller;
 import com.chat.kit.api.request.MemberDto;
 import com.chat.kit.persistence.domain.Member;
 import com.chat.kit.persistence.repository.MemberRepository;
+import com.chat.kit.service.MemberImportService;
 import com.chat.kit.service.MemberService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/members")
 @RequiredArgsConstructor
 public class MemberController {
     private final MemberService memberService;
+    private final MemberImportService memberImportService;
 
     @PostMapping
     public String createMember(@RequestBody MemberDto memberDto) {
         memberService.createMember(memberDto);
         return "created";
     }
+
+    /**
+     * 회원 일괄 등록. 본문은 회원 id 의 JSON 배열 또는 NDJSON ([1, 2] / {"id":1} 한 줄씩)
+     * 응답은 chunk 마다 진행 상황(MemberImportProgress) 한 줄씩인 NDJSON
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public void importMembers(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        memberImportService.importMembers(body, response.getOutputStream());
+    }
 }
@@ -1,5 +1,6 @@
 package com.chat.kit.controller;
 
+import com.chat.kit.service.ChatRoomPresenceRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
@@ -14,6 +15,8 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 public class WebSocketEventListener {
     @Autowired
     private SimpMessageSendingOperations messagingTemplate;
+    @Autowired
+    private ChatRoomPresenceRegistry chatRoomPresenceRegistry;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
@@ -27,6 +30,8 @@ public class WebSocketEventListener {
 
         String sessionId = headerAccessor.getSessionId();
         log.info("Disconnected listener triggered for sessionId: {}", sessionId);
+        // DISCONNECT 프레임 없이 끊긴 경우(네트워크 단절 등)에도 이벤트는 항상 발생하므로 여기서 presence 를 정리한다
+        chatRoomPresenceRegistry.disconnect(sessionId);
 
         if (headerAccessor.getUser() != null) {
             log.info("Disconnect triggered by user: {}", headerAccessor.getUser().getName());
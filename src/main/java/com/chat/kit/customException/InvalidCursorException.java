@@ -0,0 +1,11 @@
+package com.chat.kit.customException;
+
+public class InvalidCursorException extends RuntimeException{
+    public InvalidCursorException() {
+        super();
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,158 @@
+package com.chat.kit.dispatch;
+
+import com.chat.kit.service.ChatRoomPresenceRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 채팅방별 메시지 속도 / 구독자 수를 보고 "핫 룸" 을 판단한다.
+ *
+ * receiveMessage 경로에서 {@link #record} 로 메시지 수를 세고, 1초마다 방별 초당 메시지 수(지수 평활)와
+ * 이 노드의 구독 세션 수를 계산한다. 둘 중 하나가 기준(chat.hot-room.message-rate / subscribers)을 넘으면 핫 룸이 되고,
+ * 기준 아래로 chat.hot-room.cool-down-seconds 동안 머무르면 다시 일반 방이 된다.
+ * 상태가 바뀌면 {@link HotRoomListener} 로 알린다 (전용 lane). 느린 구독자 conflation(SlowConsumerInterceptor)은 {@link #isHot} 으로 확인한다.
+ *
+ * 핫 룸 수(chat.room.hot) 와 핫 룸별 초당 메시지 수 / 구독자 수(chat.room.hot.message.rate, chat.room.hot.subscribers)를 기록한다.
+ * 방 전체를 tag 로 달면 meter 가 끝없이 늘어나므로 방별 값은 핫 룸만 기록한다.
+ */
+@Slf4j
+@Component
+public class HotRoomTracker {
+    private static final double SMOOTHING = 0.5;
+
+    private final ChatRoomPresenceRegistry chatRoomPresenceRegistry;
+    private final MeterRegistry meterRegistry;
+    private final double messageRateThreshold;
+    private final int subscriberThreshold;
+    private final int coolDownSeconds;
+    private final Map<Long, RoomStats> rooms = new ConcurrentHashMap<>();
+    private final Map<Long, RoomStats> hotRooms = new ConcurrentHashMap<>();
+    private final List<HotRoomListener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public interface HotRoomListener {
+        void onHotRoomChanged(Long roomId, boolean hot);
+    }
+
+    public HotRoomTracker(ChatRoomPresenceRegistry chatRoomPresenceRegistry,
+                          MeterRegistry meterRegistry,
+                          @Value("${chat.hot-room.message-rate:50}") double messageRateThreshold,
+                          @Value("${chat.hot-room.subscribers:1000}") int subscriberThreshold,
+                          @Value("${chat.hot-room.cool-down-seconds:30}") int coolDownSeconds) {
+        this.chatRoomPresenceRegistry = chatRoomPresenceRegistry;
+        this.meterRegistry = meterRegistry;
+        this.messageRateThreshold = messageRateThreshold;
+        this.subscriberThreshold = subscriberThreshold;
+        this.coolDownSeconds = coolDownSeconds;
+        meterRegistry.gauge("chat.room.hot", hotRooms, Map::size);
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-hot-room");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::evaluateSafely, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public void addListener(HotRoomListener listener) {
+        listeners.add(listener);
+    }
+
+    public void record(Long roomId) {
+        rooms.computeIfAbsent(roomId, RoomStats::new).messages.increment();
+    }
+
+    public boolean isHot(Long roomId) {
+        return hotRooms.containsKey(roomId);
+    }
+
+    /**
+     * 지난 1초 동안의 값을 반영해 핫 룸 상태를 갱신한다
+     */
+    void evaluate() {
+        for (RoomStats stats : rooms.values()) {
+            long messages = stats.messages.sumThenReset();
+            stats.messageRate = SMOOTHING * messages + (1 - SMOOTHING) * stats.messageRate;
+            stats.subscribers = chatRoomPresenceRegistry.getLocalSubscriberCount(stats.roomId);
+
+            boolean overThreshold = stats.messageRate >= messageRateThreshold
+                    || (messages > 0 && stats.subscribers >= subscriberThreshold);
+            if (overThreshold) {
+                stats.quietSeconds = 0;
+                if (!isHot(stats.roomId)) {
+                    enter(stats);
+                }
+            } else if (isHot(stats.roomId)) {
+                if (++stats.quietSeconds >= coolDownSeconds) {
+                    leave(stats);
+                }
+            } else if (messages == 0 && stats.messageRate < 1) {
+                // 조용한 방은 다시 메시지가 올 때까지 잊는다
+                rooms.remove(stats.roomId, stats);
+            }
+        }
+    }
+
+    private void evaluateSafely() {
+        try {
+            evaluate();
+        } catch (RuntimeException e) {
+            log.error("핫 룸 판단 실패", e);
+        }
+    }
+
+    private void enter(RoomStats stats) {
+        Tags tags = Tags.of("room", String.valueOf(stats.roomId));
+        stats.rateGauge = Gauge.builder("chat.room.hot.message.rate", stats, s -> s.messageRate).tags(tags).register(meterRegistry);
+        stats.subscriberGauge = Gauge.builder("chat.room.hot.subscribers", stats, s -> s.subscribers).tags(tags).register(meterRegistry);
+        hotRooms.put(stats.roomId, stats);
+        log.info("채팅방 {} 핫 룸 시작 (초당 메시지 {}, 구독자 {})", stats.roomId, String.format("%.1f", stats.messageRate), stats.subscribers);
+        listeners.forEach(listener -> listener.onHotRoomChanged(stats.roomId, true));
+    }
+
+    private void leave(RoomStats stats) {
+        hotRooms.remove(stats.roomId);
+        meterRegistry.remove(stats.rateGauge);
+        meterRegistry.remove(stats.subscriberGauge);
+        log.info("채팅방 {} 핫 룸 종료", stats.roomId);
+        listeners.forEach(listener -> listener.onHotRoomChanged(stats.roomId, false));
+    }
+
+    private static class RoomStats {
+        private final Long roomId;
+        private final LongAdder messages = new LongAdder();
+        // 아래 값은 evaluate 스레드에서만 바꾼다
+        private volatile double messageRate;
+        private volatile int subscribers;
+        private int quietSeconds;
+        private Gauge rateGauge;
+        private Gauge subscriberGauge;
+
+        private RoomStats(Long roomId) {
+            this.roomId = roomId;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.chat.kit.dispatch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 채팅방별 순서 보장 dispatcher.
+ * roomId 를 해시해서 N 개의 lane 중 하나에 넣고, lane 마다 스레드 하나가 순서대로 처리한다.
+ * 같은 방의 메시지는 항상 같은 lane 에서 차례로 저장/전송되고, 다른 방들은 여러 lane 에 나뉘어 동시에 처리된다.
+ *
+ * lane 이 가득 차면 넣는 쪽이 기다린다(backpressure).
+ * lane 별 대기 건수(chat.dispatch.lane.depth), 대기 시간(chat.dispatch.lane.wait), 처리 시간(chat.dispatch.lane.process)을 기록한다.
+ *
+ * 핫 룸({@link HotRoomTracker})은 전용 lane 으로 옮겨서, 메시지가 몰리는 방 하나가 같은 lane 의 다른 방들을 밀리게 하지 않게 한다.
+ * 전용 lane 으로 옮길 때는 공용 lane 에 남아 있는 작업이 끝난 뒤에 전용 lane 이 시작하고(기다리는 것은 전용 lane 뿐),
+ * 되돌릴 때는 전용 lane 에 남은 작업을 한 묶음으로 공용 lane 에 넘겨, 실행중인 작업이 끝난 뒤 이어서 실행하므로 방 안의 순서는 그대로 유지된다.
+ * route 를 바꾸는 write lock 안에서는 기다리는 일(가득 찬 lane 에 넣기, 스레드 종료 대기)을 하지 않는다.
+ * 그동안 다른 방의 dispatch 가 멈추지 않도록, 공용 lane 경계는 lock 밖에서 넣고 넘겨받은 묶음은 공용 lane 의 큐 앞에 따로 둔다.
+ * 전용 lane 은 최대 chat.hot-room.max-dedicated-lanes 개까지 만든다.
+ */
+@Slf4j
+@Component
+public class RoomDispatcher implements SmartLifecycle {
+    private final Lane[] lanes;
+    private final Map<Long, Lane> dedicatedLanes = new ConcurrentHashMap<>();
+    // dispatch 는 read lock, 전용 lane 으로 옮기거나 되돌릴 때는 write lock
+    private final ReadWriteLock routeLock = new ReentrantReadWriteLock();
+    private final HotRoomTracker hotRoomTracker;
+    private final MeterRegistry meterRegistry;
+    private final int laneCapacity;
+    private final int maxDedicatedLanes;
+    private volatile boolean running;
+
+    public RoomDispatcher(MeterRegistry meterRegistry,
+                          HotRoomTracker hotRoomTracker,
+                          @Value("${chat.dispatch.lanes:0}") int laneCount,
+                          @Value("${chat.dispatch.lane-capacity:10000}") int laneCapacity,
+                          @Value("${chat.hot-room.max-dedicated-lanes:4}") int maxDedicatedLanes) {
+        int count = (laneCount > 0) ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(String.valueOf(i), laneCapacity, meterRegistry);
+        }
+        this.hotRoomTracker = hotRoomTracker;
+        this.meterRegistry = meterRegistry;
+        this.laneCapacity = laneCapacity;
+        this.maxDedicatedLanes = maxDedicatedLanes;
+        hotRoomTracker.addListener((roomId, hot) -> {
+            if (hot) {
+                promote(roomId);
+            } else {
+                demote(roomId);
+            }
+        });
+    }
+
+    public void dispatch(Long roomId, Runnable task) {
+        if (!running) {
+            throw new IllegalStateException("room dispatcher is not running");
+        }
+        hotRoomTracker.record(roomId);
+        routeLock.readLock().lock();
+        try {
+            laneFor(roomId).submit(task);
+        } finally {
+            routeLock.readLock().unlock();
+        }
+    }
+
+    public boolean hasDedicatedLane(Long roomId) {
+        return dedicatedLanes.containsKey(roomId);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * 핫 룸을 전용 lane 으로 옮긴다
+     */
+    void promote(Long roomId) {
+        Lane shared = lanes[laneIndex(roomId)];
+        CountDownLatch drained = new CountDownLatch(1);
+        routeLock.writeLock().lock();
+        try {
+            if (!running || dedicatedLanes.containsKey(roomId)) {
+                return;
+            }
+            if (dedicatedLanes.size() >= maxDedicatedLanes) {
+                log.warn("전용 lane 이 모두 사용중이라 핫 룸 {} 은 공용 lane 에 남습니다", roomId);
+                return;
+            }
+            Lane dedicated = new Lane("room-" + roomId, laneCapacity, meterRegistry);
+            // 새 lane 의 큐는 비어 있으므로 기다리지 않는다
+            dedicated.submit(() -> awaitDrain(drained));
+            dedicated.start();
+            dedicatedLanes.put(roomId, dedicated);
+            log.info("핫 룸 {} 전용 lane 시작", roomId);
+        } finally {
+            routeLock.writeLock().unlock();
+        }
+        // route 가 바뀌었으므로 이 방의 새 작업은 더 이상 공용 lane 에 들어가지 않는다.
+        // 경계는 lock 밖에서 넣어서, 공용 lane 이 가득 차 기다리는 동안에도 다른 dispatch 는 막히지 않는다
+        try {
+            shared.submit(drained::countDown);
+        } catch (RuntimeException e) {
+            log.warn("핫 룸 {} 공용 lane 경계를 넣지 못해 바로 시작합니다 : {}", roomId, e.toString());
+            drained.countDown();
+        }
+    }
+
+    /**
+     * 전용 lane 을 정리하고 원래 lane 으로 되돌린다
+     */
+    void demote(Long roomId) {
+        routeLock.writeLock().lock();
+        try {
+            Lane dedicated = dedicatedLanes.remove(roomId);
+            if (dedicated == null) {
+                return;
+            }
+            // write lock 이 풀리면 이 방의 새 작업은 공용 lane 으로 가므로, 그 전에 남은 작업을 공용 lane 에 먼저 넘긴다 (기다리지 않음)
+            lanes[laneIndex(roomId)].takeOver(dedicated.retire());
+            log.info("핫 룸 {} 전용 lane 종료", roomId);
+        } finally {
+            routeLock.writeLock().unlock();
+        }
+    }
+
+    // 전용 lane 의 첫 작업 : 공용 lane 에 남아 있던 이 방의 작업이 모두 끝날 때까지 기다린다. 종료 중이면 기다리지 않는다
+    private void awaitDrain(CountDownLatch drained) {
+        try {
+            while (!drained.await(100, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Lane laneFor(Long roomId) {
+        Lane dedicated = dedicatedLanes.get(roomId);
+        return (dedicated != null) ? dedicated : lanes[laneIndex(roomId)];
+    }
+
+    int laneIndex(Long roomId) {
+        // 연속된 roomId 가 한 lane 에 몰리지 않도록 섞는다
+        long mixed = roomId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (mixed ^ (mixed >>> 32)), lanes.length);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (Lane lane : lanes) {
+            lane.start();
+        }
+        log.info("room dispatcher 시작 (lanes={})", lanes.length);
+    }
+
+    /**
+     * 새 작업은 받지 않고, lane 에 남은 작업은 모두 처리한 뒤 멈춘다.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+        dedicatedLanes.values().forEach(Lane::stop);
+        dedicatedLanes.clear();
+        log.info("room dispatcher 종료");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 웹소켓 처리가 멈춘 뒤, DB 등 다른 빈이 정리되기 전에 멈춘다
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1000;
+    }
+
+    private static class Lane {
+        private final String name;
+        private final BlockingQueue<Task> queue;
+        // 되돌린 전용 lane 에서 넘겨받은 작업 묶음. 큐의 다음 작업보다 먼저 실행한다 (takeOver)
+        private final Queue<Runnable> handovers = new ConcurrentLinkedQueue<>();
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private final MeterRegistry meterRegistry;
+        private final Timer waitTimer;
+        private final Timer processTimer;
+        private final Gauge depthGauge;
+        private volatile boolean accepting;
+        private volatile boolean retired;
+        // true 면 큐에 남은 작업을 실행하지 않고 스레드를 멈춘다 (retire)
+        private volatile boolean handingOver;
+        private Thread thread;
+
+        private Lane(String name, int capacity, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.meterRegistry = meterRegistry;
+            Tags tags = Tags.of("lane", name);
+            this.waitTimer = Timer.builder("chat.dispatch.lane.wait").tags(tags).register(meterRegistry);
+            this.processTimer = Timer.builder("chat.dispatch.lane.process").tags(tags).register(meterRegistry);
+            this.depthGauge = Gauge.builder("chat.dispatch.lane.depth", queue, BlockingQueue::size).tags(tags).register(meterRegistry);
+        }
+
+        private void submit(Runnable task) {
+            put(new Task(task, System.nanoTime()));
+        }
+
+        private void put(Task task) {
+            try {
+                queue.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while dispatching to lane " + name, e);
+            }
+        }
+
+        private void start() {
+            accepting = true;
+            thread = new Thread(this::runLoop, "chat-lane-" + name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void stop() {
+            accepting = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runHandovers();
+            List<Task> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            rest.forEach(this::run);
+        }
+
+        /**
+         * 핫 룸 전용 lane 정리 : 실행중인 작업이 끝나면 스레드를 멈추게 하고, 아직 시작하지 않은 작업을 받은 순서대로 꺼내 돌려준다.
+         * 호출한 쪽은 기다리지 않는다. route 의 write lock 안에서 호출하므로 그 뒤로 이 lane 에 들어오는 작업은 없다.
+         */
+        private Retired retire() {
+            retired = true;
+            accepting = false;
+            handingOver = true;
+            List<Task> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            // poll 에서 기다리는 스레드를 바로 깨운다 (큐는 방금 비웠으므로 넣을 자리가 있다)
+            queue.offer(new Task(() -> {
+            }, System.nanoTime()));
+            return new Retired(stopped, rest);
+        }
+
+        /**
+         * 되돌린 전용 lane 의 남은 작업을 이어받는다. 그 lane 에서 실행중이던 작업이 끝나면 이 lane 스레드에서 순서대로 실행한다.
+         * 큐 앞에 따로 두므로 이 lane 이 가득 차 있어도 기다리지 않고, 이후 들어오는 이 방의 작업보다 먼저 실행된다.
+         */
+        private void takeOver(Retired from) {
+            handovers.add(() -> {
+                try {
+                    from.stopped().await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                from.tasks().forEach(this::run);
+            });
+        }
+
+        private void runHandovers() {
+            Runnable handover;
+            while ((handover = handovers.poll()) != null) {
+                handover.run();
+            }
+        }
+
+        private void runLoop() {
+            try {
+                while (!handingOver && (accepting || !queue.isEmpty() || !handovers.isEmpty())) {
+                    runHandovers();
+                    Task task = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        // 이 작업보다 먼저 넘겨받은 묶음이 있으면 그것부터 실행한다
+                        runHandovers();
+                        run(task);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (retired) {
+                    meterRegistry.remove(waitTimer);
+                    meterRegistry.remove(processTimer);
+                    meterRegistry.remove(depthGauge);
+                }
+                stopped.countDown();
+            }
+        }
+
+        private void run(Task task) {
+            long startedAt = System.nanoTime();
+            waitTimer.record(startedAt - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+            try {
+                task.runnable().run();
+            } catch (RuntimeException e) {
+                log.error("chat lane {} 작업 처리 실패", name, e);
+            } finally {
+                processTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private record Task(Runnable runnable, long enqueuedAt) {
+    }
+
+    private record Retired(CountDownLatch stopped, List<Task> tasks) {
+    }
+}
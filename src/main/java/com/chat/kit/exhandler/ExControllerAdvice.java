@@ -1,6 +1,7 @@
 package com.chat.kit.exhandler;
 
 import com.chat.kit.api.response.common.error.ErrorCode;
+import com.chat.kit.customException.InvalidCursorException;
 import com.chat.kit.customException.NoChatRoomException;
 import com.chat.kit.customException.NoMemberException;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,12 @@ public class ExControllerAdvice {
         log.error("[exceptionHandler] ex", e);
         return new ErrorResult(ErrorCode.BAD_REQUEST, e.getMessage());
     }
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidCursorException.class)
+    public ErrorResult InvalidCursorExHandler(InvalidCursorException e){
+        log.error("[exceptionHandler] ex", e);
+        return new ErrorResult(ErrorCode.INVALID_VALUE, e.getMessage());
+    }
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler
     public ErrorResult exHandler(Exception e){
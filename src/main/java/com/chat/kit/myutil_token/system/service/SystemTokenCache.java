@@ -0,0 +1,122 @@
+package com.chat.kit.myutil_token.system.service;
+
+import com.chat.kit.myutil_token.system.util.JwtProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.PrivateKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 시스템 토큰 캐시.
+ * 시스템 토큰은 유효기간 동안 내용이 같으므로 매 요청마다 RS256 서명을 하지 않고, 서명해 둔 토큰을 나눠 준다.
+ *
+ * 남은 유효기간이 refreshBefore 보다 짧아지면 백그라운드 스레드가 새 토큰으로 바꾼다.
+ * 백그라운드 갱신이 밀려 남은 유효기간이 refreshBefore 의 절반보다 짧아졌을 때만 요청 스레드에서 직접 서명한다.
+ */
+@Slf4j
+public class SystemTokenCache {
+    private final PrivateKey privateKey;
+    private final Duration lifetime;
+    private final Duration refreshBefore;
+    private final Clock clock;
+    private volatile SystemToken current;
+    private ScheduledExecutorService scheduler;
+
+    public record SystemToken(String token, Instant expiresAt) {
+    }
+
+    public SystemTokenCache(PrivateKey privateKey, Duration lifetime, Duration refreshBefore, Clock clock) {
+        if (refreshBefore.compareTo(lifetime) >= 0) {
+            throw new IllegalArgumentException("refreshBefore 는 토큰 유효기간보다 짧아야 합니다: " + refreshBefore);
+        }
+        this.privateKey = privateKey;
+        this.lifetime = lifetime;
+        this.refreshBefore = refreshBefore;
+        this.clock = clock;
+    }
+
+    /**
+     * 첫 토큰을 서명하고 백그라운드 갱신을 시작한다
+     */
+    public void start() {
+        refresh();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "system-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshIfDueSafely, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public String get() {
+        SystemToken token = current;
+        if (token == null || remaining(token).compareTo(refreshBefore.dividedBy(2)) < 0) {
+            token = refreshIfStale(refreshBefore.dividedBy(2));
+        }
+        return token.token();
+    }
+
+    void refreshIfDue() {
+        SystemToken token = current;
+        if (token == null || remaining(token).compareTo(refreshBefore) < 0) {
+            refreshIfStale(refreshBefore);
+        }
+    }
+
+    private synchronized SystemToken refreshIfStale(Duration minRemaining) {
+        // 다른 스레드가 먼저 갱신했으면 그 토큰을 쓴다
+        SystemToken token = current;
+        if (token != null && remaining(token).compareTo(minRemaining) >= 0) {
+            return token;
+        }
+        return refresh();
+    }
+
+    private synchronized SystemToken refresh() {
+        Instant issuedAt = clock.instant().truncatedTo(ChronoUnit.SECONDS);
+        SystemToken token = new SystemToken(sign(privateKey, issuedAt, lifetime), issuedAt.plus(lifetime));
+        current = token;
+        log.debug("시스템 토큰 갱신, 만료 {}", token.expiresAt());
+        return token;
+    }
+
+    private Duration remaining(SystemToken token) {
+        return Duration.between(clock.instant(), token.expiresAt());
+    }
+
+    private void refreshIfDueSafely() {
+        try {
+            refreshIfDue();
+        } catch (RuntimeException e) {
+            log.error("시스템 토큰 갱신 실패", e);
+        }
+    }
+
+    /**
+     * 시스템 토큰 서명 (RS256)
+     */
+    public static String sign(PrivateKey privateKey, Instant issuedAt, Duration lifetime) {
+        return Jwts.builder()
+                .setSubject("SYSTEM")
+                .claim(JwtProperties.ROLE, "SYSTEM")
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(issuedAt.plus(lifetime)))
+                .signWith(SignatureAlgorithm.RS256, privateKey)
+                .compact();
+    }
+}
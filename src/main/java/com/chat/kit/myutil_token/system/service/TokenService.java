@@ -1,10 +1,10 @@
 package com.chat.kit.myutil_token.system.service;
 
 import com.chat.kit.myutil_token.system.util.JwtProperties;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
@@ -12,16 +12,21 @@ import java.nio.charset.StandardCharsets;
 import java.security.KeyFactory;
 import java.security.PrivateKey;
 import java.security.spec.PKCS8EncodedKeySpec;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Base64;
-import java.util.Date;
 
 @Service
 @Slf4j
 public class TokenService {
 
+    private final long refreshBeforeSeconds;
     private PrivateKey privateKey;
+    private SystemTokenCache systemTokenCache;
+
+    public TokenService(@Value("${chat.system-token.refresh-before-seconds:60}") long refreshBeforeSeconds) {
+        this.refreshBeforeSeconds = refreshBeforeSeconds;
+    }
 
     @PostConstruct
     private void initializePrivateKey() {
@@ -44,6 +49,13 @@ public class TokenService {
             this.privateKey = keyFactory.generatePrivate(privateKeySpec);
 
             log.info("PrivateKey successfully initialized.");
+
+            // 시스템 토큰은 서명해 두고 만료 전에 백그라운드에서 갱신한다
+            systemTokenCache = new SystemTokenCache(privateKey,
+                    Duration.ofSeconds(JwtProperties.ACCESS_TOKEN_EXPIRE_TIME),
+                    Duration.ofSeconds(refreshBeforeSeconds),
+                    Clock.systemUTC());
+            systemTokenCache.start();
         } catch (Exception e) {
             log.error("Error initializing TokenService: ", e);
             throw new RuntimeException(e);
@@ -51,16 +63,12 @@ public class TokenService {
     }
 
     public String createSystemToken() {
-        Instant instant = Instant.now().truncatedTo(ChronoUnit.SECONDS);
-        Instant expiredDate = instant.plus(JwtProperties.ACCESS_TOKEN_EXPIRE_TIME, ChronoUnit.SECONDS);
+        return systemTokenCache.get();
+    }
 
-        return Jwts.builder()
-                .setSubject("SYSTEM")
-                .claim(JwtProperties.ROLE, "SYSTEM")
-                .setIssuedAt(Date.from(instant))
-                .setExpiration(Date.from(expiredDate))
-                .signWith(SignatureAlgorithm.RS256, privateKey)
-                .compact();
+    @PreDestroy
+    void stop() {
+        systemTokenCache.stop();
     }
 
 }
@@ -1,5 +1,6 @@
 package com.chat.kit.persistence.domain;
 
+import com.chat.kit.service.ChatMessageIdListener;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import lombok.*;
@@ -8,16 +9,23 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(ChatMessageIdListener.class)
+@Table(indexes = @Index(name = "IDX_CHAT_MESSAGE_ROOM_SENT_AT", columnList = "CHAT_ROOM_ID, SENT_AT, CHAT_MESSAGE_ID"))
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class ChatMessage {
-    @Id @GeneratedValue(strategy=GenerationType.SEQUENCE)
+    // id 는 ChatMessageIdAllocator 가 저장 전에 발급한다. 시퀀스가 없으면 allocator 가 INCREMENT BY ID_ALLOCATION_SIZE 로 만들고,
+    // 이미 있으면 DB 의 INCREMENT 를 블록 크기로 쓴다
+    public static final String ID_SEQUENCE = "CHAT_MESSAGE_SEQ";
+    public static final int ID_ALLOCATION_SIZE = 1000;
+
+    @Id
     @Column(name = "CHAT_MESSAGE_ID")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "CHAT_ROOM_ID")
     private ChatRoom chatRoom;
 
@@ -6,15 +6,22 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "UK_CHAT_ROOM_MEMBER_SET_KEY", columnNames = "MEMBER_SET_KEY"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class ChatRoom{
-    @Id @GeneratedValue(strategy=GenerationType.SEQUENCE)
+    @Id @GeneratedValue(strategy=GenerationType.SEQUENCE, generator = "chatRoomSeq")
+    @SequenceGenerator(name = "chatRoomSeq", sequenceName = "CHAT_ROOM_SEQ", allocationSize = 100)
     @Column(name = "CHAT_ROOM_ID")
     private Long id;
     @OneToMany(mappedBy = "chatRoom")
@@ -26,8 +33,29 @@ public class ChatRoom{
     @OneToMany(mappedBy = "chatRoom")
     private List<ChatMessage> chatMessages= new ArrayList<>();
 
+    // 참여자 집합의 키 (memberSetKeyOf). 같은 회원들의 채팅방은 하나만 만들어지도록 unique
+    @Column(name = "MEMBER_SET_KEY", length = 64)
+    private String memberSetKey;
+
     @Builder
-    public ChatRoom(RoomType roomType) {
+    public ChatRoom(RoomType roomType, String memberSetKey) {
         this.roomType = roomType;
+        this.memberSetKey = memberSetKey;
+    }
+
+    /**
+     * 회원 id 를 정렬 / 중복 제거한 뒤 SHA-256 한 값 (hex 64자). 순서와 중복에 관계없이 같은 회원들이면 같은 키가 나온다
+     */
+    public static String memberSetKeyOf(Collection<Long> memberIds) {
+        long[] sorted = memberIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+        ByteBuffer buffer = ByteBuffer.allocate(sorted.length * Long.BYTES);
+        for (long memberId : sorted) {
+            buffer.putLong(memberId);
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(buffer.array()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
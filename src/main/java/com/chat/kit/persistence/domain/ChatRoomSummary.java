@@ -0,0 +1,62 @@
+package com.chat.kit.persistence.domain;
+
+import jakarta.persistence.*;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Length;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 채팅방 목록 조회용 요약 테이블 (채팅방 1개당 1행).
+ * 마지막 메시지, 메시지 수, 참여자 id 를 미리 저장해 두고 메시지 저장시 증분 갱신한다.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ChatRoomSummary {
+    @Id
+    @Column(name = "CHAT_ROOM_ID")
+    private Long roomId;
+
+    private Long lastMessageId;
+    private String lastMessage;
+    private LocalDateTime lastSentAt;
+    private long messageCount;
+
+    // 참여자 id 를 ',' 로 이어붙인 값
+    @Column(length = Length.LONG32)
+    private String participantIds;
+
+    @Builder
+    public ChatRoomSummary(Long roomId, Long lastMessageId, String lastMessage, LocalDateTime lastSentAt, long messageCount, String participantIds) {
+        this.roomId = roomId;
+        this.lastMessageId = lastMessageId;
+        this.lastMessage = lastMessage;
+        this.lastSentAt = lastSentAt;
+        this.messageCount = messageCount;
+        this.participantIds = participantIds;
+    }
+
+    public static String joinIds(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    public static List<Long> splitIds(String ids) {
+        List<Long> result = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        for (String id : ids.split(",")) {
+            result.add(Long.parseLong(id));
+        }
+        return result;
+    }
+}
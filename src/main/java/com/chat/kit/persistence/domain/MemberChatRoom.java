@@ -2,29 +2,40 @@ package com.chat.kit.persistence.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "IDX_MEMBER_CHAT_ROOM_MEMBER", columnList = "MEMBER_ID"))
 @Getter
 @Setter
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class MemberChatRoom {
-    @Id @GeneratedValue(strategy=GenerationType.SEQUENCE)
+    @Id @GeneratedValue(strategy=GenerationType.SEQUENCE, generator = "memberChatRoomSeq")
+    @SequenceGenerator(name = "memberChatRoomSeq", sequenceName = "MEMBER_CHAT_ROOM_SEQ", allocationSize = 500)
     @Column(name = "MEMBER_CHAR_ROOM_ID")
     private Long id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "MEMBER_ID")
     private Member member;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "CHAT_ROOM_ID")
     private ChatRoom chatRoom;
 
     @Builder.Default
     private LocalDateTime lastLeavedTime = LocalDateTime.now();
 
+    // 안 읽은 메시지 수. 방에 없는 동안 메시지가 오면 증가하고, 방에 들어오면 0 으로 초기화
+    @Builder.Default
+    @ColumnDefault("0")
+    private int unreadCount = 0;
+
+    // 마지막으로 읽은 메시지 id
+    private Long lastReadMessageId;
+
 }
@@ -0,0 +1,17 @@
+package com.chat.kit.persistence.projection;
+
+import com.chat.kit.persistence.domain.ChatType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 메시지 조회용 projection. ChatRoom 엔티티를 읽지 않고 FK 값(roomId)만 가져온다.
+ */
+public interface ChatMessageView {
+    Long getId();
+    Long getRoomId();
+    Long getMemberId();
+    String getMessage();
+    ChatType getChatType();
+    LocalDateTime getSentAt();
+}
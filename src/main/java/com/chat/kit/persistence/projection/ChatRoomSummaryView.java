@@ -0,0 +1,13 @@
+package com.chat.kit.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * 회원의 채팅방 목록 projection. 요약 행이 아직 없는 방은 roomId 외의 값이 null 이다.
+ */
+public interface ChatRoomSummaryView {
+    Long getRoomId();
+    String getParticipantIds();
+    String getLastMessage();
+    LocalDateTime getLastSentAt();
+}
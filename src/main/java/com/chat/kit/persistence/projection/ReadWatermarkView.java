@@ -0,0 +1,6 @@
+package com.chat.kit.persistence.projection;
+
+public interface ReadWatermarkView {
+    Long getMemberId();
+    Long getLastReadMessageId();
+}
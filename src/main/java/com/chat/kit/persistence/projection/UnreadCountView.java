@@ -0,0 +1,7 @@
+package com.chat.kit.persistence.projection;
+
+public interface UnreadCountView {
+    Long getRoomId();
+    int getUnreadCount();
+    Long getLastReadMessageId();
+}
@@ -2,8 +2,11 @@ package com.chat.kit.persistence.repository;
 
 import com.chat.kit.persistence.domain.ChatMessage;
 import com.chat.kit.persistence.domain.ChatRoom;
+import com.chat.kit.persistence.projection.ChatMessageView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,13 +14,46 @@ import java.util.Optional;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     List<ChatMessage> findBychatRoom(ChatRoom chatRoom);
-    @Query("SELECT cm from ChatMessage cm left " +
-            "join ChatRoom cr on cr.id=cm.chatRoom.id " +
-            "left join MemberChatRoom mc on mc.chatRoom.id=cr.id and mc.member.id=:memberId " +
-            "where cm.sentAt > mc.lastLeavedTime"
-    )
-    List<ChatMessage> findUnReadMsgByMemberId(Long memberId);
-
-    @Query("SELECT cm from ChatMessage cm where cm.chatRoom.id=:roomId order by cm.sentAt desc limit 1")
-    Optional<ChatMessage> findLastMsgByChatRoomId(Long roomId);
+
+    long countByChatRoomId(Long roomId);
+
+    // 메시지 keyset 페이징 : (sentAt, id) 기준, ChatRoom 엔티티는 읽지 않는다
+    String MESSAGE_VIEW_SELECT = "SELECT cm.id as id, cm.chatRoom.id as roomId, cm.memberId as memberId, " +
+            "cm.message as message, cm.chatType as chatType, cm.sentAt as sentAt from ChatMessage cm ";
+
+    @Query(MESSAGE_VIEW_SELECT +
+            "where cm.chatRoom.id = :roomId " +
+            "order by cm.sentAt desc, cm.id desc limit 1")
+    Optional<ChatMessageView> findLastViewByChatRoomId(@Param("roomId") Long roomId);
+
+    @Query(MESSAGE_VIEW_SELECT +
+            "where cm.chatRoom.id = :roomId " +
+            "order by cm.sentAt desc, cm.id desc")
+    List<ChatMessageView> findLatestViews(@Param("roomId") Long roomId, Limit limit);
+
+    @Query(MESSAGE_VIEW_SELECT +
+            "where cm.chatRoom.id = :roomId " +
+            "and (cm.sentAt < :sentAt or (cm.sentAt = :sentAt and cm.id < :id)) " +
+            "order by cm.sentAt desc, cm.id desc")
+    List<ChatMessageView> findViewsBefore(@Param("roomId") Long roomId, @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id, Limit limit);
+
+    @Query(MESSAGE_VIEW_SELECT +
+            "where cm.chatRoom.id = :roomId " +
+            "and (cm.sentAt > :sentAt or (cm.sentAt = :sentAt and cm.id > :id)) " +
+            "order by cm.sentAt asc, cm.id asc")
+    List<ChatMessageView> findViewsAfter(@Param("roomId") Long roomId, @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id, Limit limit);
+
+    // 회원이 읽지 않은 메시지 : 참여중인 방에서 마지막으로 읽은(나간) 시간 이후의 메시지
+    @Query(MESSAGE_VIEW_SELECT +
+            "join MemberChatRoom mc on mc.chatRoom.id = cm.chatRoom.id " +
+            "where mc.member.id = :memberId and cm.sentAt > mc.lastLeavedTime " +
+            "order by cm.sentAt asc, cm.id asc")
+    List<ChatMessageView> findUnreadViews(@Param("memberId") Long memberId, Limit limit);
+
+    @Query(MESSAGE_VIEW_SELECT +
+            "join MemberChatRoom mc on mc.chatRoom.id = cm.chatRoom.id " +
+            "where mc.member.id = :memberId and cm.sentAt > mc.lastLeavedTime " +
+            "and (cm.sentAt > :sentAt or (cm.sentAt = :sentAt and cm.id > :id)) " +
+            "order by cm.sentAt asc, cm.id asc")
+    List<ChatMessageView> findUnreadViewsAfter(@Param("memberId") Long memberId, @Param("sentAt") LocalDateTime sentAt, @Param("id") Long id, Limit limit);
 }
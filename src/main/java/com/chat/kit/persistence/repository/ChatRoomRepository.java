@@ -3,7 +3,11 @@ package com.chat.kit.persistence.repository;
 import com.chat.kit.persistence.domain.ChatRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
+import java.util.Optional;
 
+public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
+    @Query("SELECT chatRoom.id from ChatRoom chatRoom where chatRoom.memberSetKey = :memberSetKey")
+    Optional<Long> findIdByMemberSetKey(@Param("memberSetKey") String memberSetKey);
 }
@@ -0,0 +1,41 @@
+package com.chat.kit.persistence.repository;
+
+import com.chat.kit.persistence.domain.ChatRoomSummary;
+import com.chat.kit.persistence.projection.ChatRoomSummaryView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChatRoomSummaryRepository extends JpaRepository<ChatRoomSummary, Long> {
+
+    /**
+     * 저장된 메시지 count 건을 요약에 반영한다. 마지막 메시지는 sentAt 이 더 최신일 때만 바꾼다.
+     * 요약 행이 없으면 0 을 반환한다.
+     */
+    @Modifying
+    @Query(value = "UPDATE CHAT_ROOM_SUMMARY SET " +
+            "MESSAGE_COUNT = MESSAGE_COUNT + :count, " +
+            "LAST_MESSAGE_ID = CASE WHEN LAST_SENT_AT IS NULL OR LAST_SENT_AT <= :sentAt THEN :messageId ELSE LAST_MESSAGE_ID END, " +
+            "LAST_MESSAGE = CASE WHEN LAST_SENT_AT IS NULL OR LAST_SENT_AT <= :sentAt THEN :message ELSE LAST_MESSAGE END, " +
+            "LAST_SENT_AT = CASE WHEN LAST_SENT_AT IS NULL OR LAST_SENT_AT <= :sentAt THEN :sentAt ELSE LAST_SENT_AT END " +
+            "WHERE CHAT_ROOM_ID = :roomId", nativeQuery = true)
+    int applyMessages(@Param("roomId") Long roomId,
+                      @Param("messageId") Long messageId,
+                      @Param("message") String message,
+                      @Param("sentAt") LocalDateTime sentAt,
+                      @Param("count") long count);
+
+    @Query("SELECT s.lastMessageId from ChatRoomSummary s where s.roomId = :roomId")
+    Long findLastMessageId(@Param("roomId") Long roomId);
+
+    @Query("SELECT mcr.chatRoom.id as roomId, s.participantIds as participantIds, " +
+            "s.lastMessage as lastMessage, s.lastSentAt as lastSentAt " +
+            "from MemberChatRoom mcr left join ChatRoomSummary s on s.roomId = mcr.chatRoom.id " +
+            "where mcr.member.id = :memberId " +
+            "order by s.lastSentAt desc nulls last")
+    List<ChatRoomSummaryView> findViewsByMemberId(@Param("memberId") Long memberId);
+}
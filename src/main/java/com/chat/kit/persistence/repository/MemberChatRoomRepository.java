@@ -3,21 +3,29 @@ package com.chat.kit.persistence.repository;
 import com.chat.kit.persistence.domain.ChatRoom;
 import com.chat.kit.persistence.domain.Member;
 import com.chat.kit.persistence.domain.MemberChatRoom;
+import com.chat.kit.persistence.projection.ReadWatermarkView;
+import com.chat.kit.persistence.projection.UnreadCountView;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 public interface MemberChatRoomRepository extends JpaRepository<MemberChatRoom,Long> {
     List<MemberChatRoom> findByMember(Member member);
+    // member / chatRoom 은 LAZY 이므로 함께 쓰는 조회는 entity graph 로 한번에 읽는다
+    @EntityGraph(attributePaths = "chatRoom")
     @Query("SELECT memberChatRoom from MemberChatRoom memberChatRoom where memberChatRoom.member.id = :memberId")
     List<MemberChatRoom> findByMemberId(Long memberId);
+    @EntityGraph(attributePaths = "member")
     @Query("SELECT memberChatRoom from MemberChatRoom memberChatRoom where memberChatRoom.chatRoom.id = :id")
     List<MemberChatRoom> findByChatRoomId(Long id);
+    @Query("SELECT memberChatRoom.member.id from MemberChatRoom memberChatRoom where memberChatRoom.chatRoom.id = :id")
+    List<Long> findMemberIdsByChatRoomId(Long id);
     @Query("SELECT memberChatRoom from MemberChatRoom memberChatRoom where memberChatRoom.member.id = :memberId and memberChatRoom.chatRoom.id = :chatRoomId")
     Optional<MemberChatRoom> findByChatRoomIdAndMemberId(Long chatRoomId, Long memberId);
     List<MemberChatRoom> findByChatRoom(ChatRoom chatRoom);
@@ -37,14 +45,21 @@ public interface MemberChatRoomRepository extends JpaRepository<MemberChatRoom,L
             "or memberChatRoom.member = :member2 GROUP BY memberChatRoom.chatRoom")
     List<Object[]> findByTwoMemberGroup(@Param("member1") Member member1, @Param("member2") Member member2);
 
-    @Query(value = "SELECT CHAT_ROOM_ID,  MEMBER_NUM FROM (SELECT CHAT_ROOM_ID, COUNT(*) AS MEMBER_NUM FROM MEMBER_CHAT_ROOM WHERE MEMBER_ID = :member1Id OR MEMBER_ID = :member2Id GROUP BY CHAT_ROOM_ID) AS FOO WHERE MEMBER_NUM=2", nativeQuery = true)
-    Optional<Long> findOne2OneRoomNumber(@Param("member1Id") Long member1Id, @Param("member2Id") Long member2Id);
+    @Modifying
+    @Query("update MemberChatRoom memberChatRoom set memberChatRoom.unreadCount = memberChatRoom.unreadCount + 1 " +
+            "where memberChatRoom.chatRoom.id = :chatRoomId and memberChatRoom.member.id in :memberIds")
+    int incrementUnreadCount(@Param("chatRoomId") Long chatRoomId, @Param("memberIds") List<Long> memberIds);
 
-    @Query(value = "SELECT CHAT_ROOM_ID FROM MEMBER_CHAT_ROOM " +
-            "WHERE MEMBER_ID IN :memberIds " +
-            "GROUP BY CHAT_ROOM_ID " +
-            "HAVING COUNT(DISTINCT MEMBER_ID) = :memberCount", nativeQuery = true)
-    Optional<Long> findMultipleRoomNumber(@Param("memberIds") List<Long> memberIds, @Param("memberCount") long memberCount);
+    @Modifying
+    @Query("update MemberChatRoom memberChatRoom set memberChatRoom.unreadCount = 0, memberChatRoom.lastLeavedTime = :readAt " +
+            "where memberChatRoom.chatRoom.id = :chatRoomId and memberChatRoom.member.id = :memberId")
+    int markRead(@Param("chatRoomId") Long chatRoomId, @Param("memberId") Long memberId, @Param("readAt") LocalDateTime readAt);
 
+    @Query("SELECT memberChatRoom.member.id as memberId, memberChatRoom.lastReadMessageId as lastReadMessageId " +
+            "from MemberChatRoom memberChatRoom where memberChatRoom.chatRoom.id = :chatRoomId")
+    List<ReadWatermarkView> findReadWatermarks(@Param("chatRoomId") Long chatRoomId);
 
+    @Query("SELECT memberChatRoom.chatRoom.id as roomId, memberChatRoom.unreadCount as unreadCount, memberChatRoom.lastReadMessageId as lastReadMessageId " +
+            "from MemberChatRoom memberChatRoom where memberChatRoom.member.id = :memberId and memberChatRoom.unreadCount > 0")
+    List<UnreadCountView> findUnreadCounts(@Param("memberId") Long memberId);
 }
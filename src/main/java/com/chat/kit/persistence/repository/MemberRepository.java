@@ -2,7 +2,13 @@ package com.chat.kit.persistence.repository;
 
 import com.chat.kit.persistence.domain.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface MemberRepository extends JpaRepository<Member, Long> {
+import java.util.Collection;
+import java.util.List;
 
+public interface MemberRepository extends JpaRepository<Member, Long> {
+    @Query("SELECT member.id from Member member where member.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
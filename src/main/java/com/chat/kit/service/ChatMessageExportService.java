@@ -0,0 +1,180 @@
+package com.chat.kit.service;
+
+import com.chat.kit.customException.InvalidCursorException;
+import com.chat.kit.customException.NoChatRoomException;
+import com.chat.kit.myutil_token.system.util.JwtProperties;
+import com.chat.kit.persistence.repository.ChatRoomRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 채팅방 전체 메시지 내보내기 (GET /chat/{roomId}/messages/export).
+ *
+ * 메시지를 목록으로 모으지 않고, forward-only JDBC cursor 로 chat.export.fetch-size 건씩 받아 읽는 즉시
+ * NDJSON 한 줄(ChatRoomMessagesResponse 와 같은 필드)로 써 나간다. 엔티티를 만들지 않으므로 persistence context 도 커지지 않는다.
+ * 순서는 (sentAt, messageId) 오름차순이라 IDX_CHAT_MESSAGE_ROOM_SENT_AT 인덱스를 그대로 탄다.
+ *
+ * 중간에 끊기면 마지막으로 받은 messageId 를 after 로 넘겨 그 다음 메시지부터 다시 받을 수 있다.
+ * 시스템 토큰이나 채팅방 참여자의 토큰으로만 내보낼 수 있다.
+ */
+@Slf4j
+@Service
+public class ChatMessageExportService {
+    private static final String SELECT_COLUMNS = "SELECT CHAT_MESSAGE_ID, MEMBER_ID, MESSAGE, CHAT_TYPE, SENT_AT FROM CHAT_MESSAGE ";
+    private static final String EXPORT_SQL = SELECT_COLUMNS +
+            "WHERE CHAT_ROOM_ID = ? ORDER BY SENT_AT, CHAT_MESSAGE_ID";
+    private static final String EXPORT_AFTER_SQL = SELECT_COLUMNS +
+            "WHERE CHAT_ROOM_ID = ? AND (SENT_AT > ? OR (SENT_AT = ? AND CHAT_MESSAGE_ID > ?)) ORDER BY SENT_AT, CHAT_MESSAGE_ID";
+    private static final String SENT_AT_SQL = "SELECT SENT_AT FROM CHAT_MESSAGE WHERE CHAT_MESSAGE_ID = ? AND CHAT_ROOM_ID = ?";
+
+    private static final String SYSTEM_ROLE = "SYSTEM";
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatRoomRosterCache chatRoomRosterCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public ChatMessageExportService(ChatRoomRepository chatRoomRepository,
+                                    ChatRoomRosterCache chatRoomRosterCache,
+                                    JdbcTemplate jdbcTemplate,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${chat.export.fetch-size:500}") int fetchSize) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.chatRoomRosterCache = chatRoomRosterCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        // 드라이버에 따라(PostgreSQL 등) autocommit 이 꺼져 있어야 fetch size 단위로 cursor 를 읽는다
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 내보낼 위치 확인. 응답을 쓰기 시작하기 전에 호출해서 잘못된 요청은 일반 에러 응답으로 돌려준다.
+     *
+     * @param afterMessageId 이 메시지 다음부터 내보낸다. null 이면 처음부터
+     */
+    public ExportStart prepare(Long roomId, Long afterMessageId) {
+        checkAuthorization(roomId);
+        if (!chatRoomRepository.existsById(roomId)) {
+            throw new NoChatRoomException("The chat room id you requested does not exist");
+        }
+        if (afterMessageId == null) {
+            return new ExportStart(roomId, null, null);
+        }
+        List<LocalDateTime> sentAt = jdbcTemplate.query(SENT_AT_SQL,
+                (rs, rowNum) -> rs.getTimestamp(1).toLocalDateTime(), afterMessageId, roomId);
+        if (sentAt.isEmpty()) {
+            throw new InvalidCursorException("The message id you requested does not exist in the chat room");
+        }
+        return new ExportStart(roomId, afterMessageId, sentAt.get(0));
+    }
+
+    /**
+     * 시스템 토큰이거나, 토큰의 memberId 가 채팅방 참여자여야 한다
+     */
+    private void checkAuthorization(Long roomId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            if (SYSTEM_ROLE.equals(jwt.getClaimAsString(JwtProperties.ROLE))) {
+                return;
+            }
+            Object memberIdClaim = jwt.getClaims().get(JwtProperties.MEMBER_ID);
+            if (memberIdClaim != null) {
+                long memberId = Long.parseLong(memberIdClaim.toString());
+                if (Arrays.stream(chatRoomRosterCache.getMemberIds(roomId)).anyMatch(id -> id == memberId)) {
+                    return;
+                }
+            }
+        }
+        throw new RuntimeException("You are not authorized to perform this operation");
+    }
+
+    /**
+     * start 이후 메시지를 out 에 NDJSON 으로 쓴다. out 은 닫지 않는다.
+     *
+     * @return 내보낸 메시지 수
+     */
+    public long export(ExportStart start, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long[] count = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        start.afterMessageId() == null ? EXPORT_SQL : EXPORT_AFTER_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, start.roomId());
+                if (start.afterMessageId() != null) {
+                    Timestamp sentAt = Timestamp.valueOf(start.afterSentAt());
+                    statement.setTimestamp(2, sentAt);
+                    statement.setTimestamp(3, sentAt);
+                    statement.setLong(4, start.afterMessageId());
+                }
+                return statement;
+            }, rs -> {
+                writeRow(generator, start.roomId(), rs);
+                count[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // 클라이언트가 연결을 끊은 경우 등
+            log.info("채팅방 {} 내보내기 중단 ({}건) : {}", start.roomId(), count[0], e.getCause().toString());
+            throw e.getCause();
+        }
+        generator.flush();
+        log.info("채팅방 {} 메시지 {}건 내보냄", start.roomId(), count[0]);
+        return count[0];
+    }
+
+    private static void writeRow(JsonGenerator generator, long roomId, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("messageId", rs.getLong(1));
+            generator.writeNumberField("roomId", roomId);
+            long memberId = rs.getLong(2);
+            if (rs.wasNull()) {
+                generator.writeNullField("senderId");
+            } else {
+                generator.writeNumberField("senderId", memberId);
+            }
+            generator.writeStringField("message", rs.getString(3));
+            Timestamp sentAt = rs.getTimestamp(5);
+            generator.writeStringField("createdAt",
+                    sentAt == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(sentAt.toLocalDateTime()));
+            generator.writeStringField("chatType", rs.getString(4));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record ExportStart(Long roomId, Long afterMessageId, LocalDateTime afterSentAt) {
+    }
+}
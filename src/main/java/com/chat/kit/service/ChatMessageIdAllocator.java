@@ -0,0 +1,125 @@
+package com.chat.kit.service;
+
+import com.chat.kit.persistence.domain.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ChatMessage id 를 DB 저장 전에 미리 발급한다. JPA 저장(ChatMessageIdListener)과 write-behind 저장 모두 여기서 받는다.
+ *
+ * chat.message.id.strategy
+ *  - sequence : 시퀀스 값 한번으로 [v, v + INCREMENT) 블록을 받아 메모리에서 나눠준다 (pooled-lo 방식)
+ *               블록 크기는 DB 에 있는 시퀀스의 INCREMENT 를 읽어서 쓴다. 이미 다른 INCREMENT 로 만들어진 시퀀스(예전 50)를
+ *               그대로 써도 블록이 겹치지 않는다. 시퀀스가 없으면 ChatMessage.ID_ALLOCATION_SIZE 로 만든다.
+ *  - time     : {@link TimeOrderedIdGenerator} 로 DB 없이 발급한다. 노드마다 chat.message.id.node-id 를 다르게 줘야 한다
+ * time 으로 바꾸는 것은 언제든 가능하지만(시간순 id 가 기존 시퀀스 값보다 훨씬 크다), 반대로 되돌리면 id 순서가 깨진다.
+ */
+@Slf4j
+@Component
+public class ChatMessageIdAllocator {
+    public enum Strategy {
+        SEQUENCE, TIME
+    }
+
+    private static final String SEQUENCE_INCREMENT_SQL =
+            "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextValueSql;
+    private final String createSequenceSql;
+    private final TimeOrderedIdGenerator timeOrderedIdGenerator;
+
+    private final Strategy strategy;
+    // 블록이 다 떨어지면 lock 을 잡은 채 시퀀스를 조회하므로 synchronized 대신 ReentrantLock (virtual thread 가 carrier 에 묶이지 않도록)
+    private final Lock blockLock = new ReentrantLock();
+
+    private long blockSize;
+    private long nextId;
+    private long blockLimit;
+
+    public ChatMessageIdAllocator(JdbcTemplate jdbcTemplate,
+                                  EntityManagerFactory entityManagerFactory,
+                                  @Value("${chat.message.id.strategy:sequence}") Strategy strategy,
+                                  @Value("${chat.message.id.node-id:0}") int nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        SequenceSupport sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceSupport();
+        this.nextValueSql = sequenceSupport.getSequenceNextValString(ChatMessage.ID_SEQUENCE);
+        this.createSequenceSql = sequenceSupport.getCreateSequenceString(ChatMessage.ID_SEQUENCE, 1, ChatMessage.ID_ALLOCATION_SIZE);
+        this.strategy = strategy;
+        this.timeOrderedIdGenerator = (strategy == Strategy.TIME) ? new TimeOrderedIdGenerator(nodeId) : null;
+        log.info("chat message id 발급 방식 : {}{}", strategy, (strategy == Strategy.TIME) ? " (node " + nodeId + ")" : "");
+    }
+
+    /**
+     * 시퀀스가 없으면 만들고 INCREMENT 를 읽는다. Hibernate 매핑이 이 시퀀스를 갖고 있지 않으므로 DB 종류와 관계없이 여기서 보장한다.
+     */
+    @PostConstruct
+    void initSequence() {
+        if (strategy != Strategy.SEQUENCE) {
+            return;
+        }
+        Long increment = findSequenceIncrement();
+        if (increment == null) {
+            try {
+                jdbcTemplate.execute(createSequenceSql);
+                log.info("{} 시퀀스 생성 (INCREMENT BY {})", ChatMessage.ID_SEQUENCE, ChatMessage.ID_ALLOCATION_SIZE);
+            } catch (DataAccessException e) {
+                // 다른 노드가 동시에 만든 경우
+                log.debug("{} 시퀀스 생성 실패, 다시 조회 : {}", ChatMessage.ID_SEQUENCE, e.getMessage());
+            }
+            increment = findSequenceIncrement();
+            if (increment == null) {
+                throw new IllegalStateException("could not create sequence " + ChatMessage.ID_SEQUENCE);
+            }
+        }
+        if (increment != ChatMessage.ID_ALLOCATION_SIZE) {
+            log.warn("{} 시퀀스 INCREMENT 가 {} 이므로 id 블록 크기로 {} 를 쓴다 (ALTER SEQUENCE {} INCREMENT BY {} 로 바꿀 수 있다)",
+                    ChatMessage.ID_SEQUENCE, increment, increment, ChatMessage.ID_SEQUENCE, ChatMessage.ID_ALLOCATION_SIZE);
+        }
+        blockSize = increment;
+    }
+
+    private Long findSequenceIncrement() {
+        // PostgreSQL 은 INCREMENT 가 문자열이라 문자열로 읽는다
+        List<String> increments = jdbcTemplate.queryForList(SEQUENCE_INCREMENT_SQL, String.class, ChatMessage.ID_SEQUENCE);
+        return increments.isEmpty() ? null : Long.parseLong(increments.get(0).trim());
+    }
+
+    public long nextId() {
+        if (timeOrderedIdGenerator != null) {
+            return timeOrderedIdGenerator.nextId();
+        }
+        return nextSequenceId();
+    }
+
+    private long nextSequenceId() {
+        blockLock.lock();
+        try {
+            if (nextId >= blockLimit) {
+                Long blockStart = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+                if (blockStart == null) {
+                    throw new IllegalStateException("could not allocate chat message id block");
+                }
+                nextId = blockStart;
+                blockLimit = blockStart + blockSize;
+            }
+            return nextId++;
+        } finally {
+            blockLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.chat.kit.service;
+
+import com.chat.kit.persistence.domain.ChatMessage;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA 로 저장하는 ChatMessage 에 {@link ChatMessageIdAllocator} 의 id 를 넣는다.
+ * 리스너는 EntityManagerFactory 를 만드는 중에 생성되고 allocator 는 EntityManagerFactory 가 필요하므로, allocator 는 처음 저장할 때 가져온다.
+ */
+@Component
+public class ChatMessageIdListener {
+    private final ObjectProvider<ChatMessageIdAllocator> chatMessageIdAllocator;
+
+    public ChatMessageIdListener(ObjectProvider<ChatMessageIdAllocator> chatMessageIdAllocator) {
+        this.chatMessageIdAllocator = chatMessageIdAllocator;
+    }
+
+    @PrePersist
+    void assignId(ChatMessage chatMessage) {
+        if (chatMessage.getId() == null) {
+            chatMessage.setId(chatMessageIdAllocator.getObject().nextId());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.chat.kit.service;
+
+import com.chat.kit.collection.LongIntHashMap;
+import com.chat.kit.collection.LongObjectHashMap;
+import com.chat.kit.persistence.domain.ChatMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 메시지 write-behind 저장 큐 (chat.message.write-behind.enabled=true 일 때만 동작).
+ *
+ * 메시지는 id 를 미리 발급받아 바로 브로드캐스트되고, 이 큐에 쌓였다가 별도 스레드에서
+ * batch-size 만큼 또는 linger-ms 가 지나면 JDBC batch insert 로 저장된다.
+ * 큐가 가득 차면 offer-timeout-ms 동안 기다린 뒤 예외를 던져 보내는 쪽을 늦춘다(backpressure).
+ * 아직 flush 되지 않은 메시지는 메시지 조회 API 에 보이지 않을 수 있다.
+ *
+ * DB 장애 / 커넥션 풀 timeout 같은 일시적 오류면 batch 를 그대로 들고 저장될 때까지 다시 시도한다.
+ * 그동안 큐는 비워지지 않으므로 가득 차면 enqueue 가 backpressure 를 건다. (종료 중에는 MAX_ATTEMPTS 번까지만 시도)
+ * 제약조건 위반 등 데이터 오류면 다시 시도하지 않고 반으로 나눠 따로 저장해서 문제 메시지만 골라낸다.
+ * 메시지 한건까지 나눠도 데이터 오류면 그 메시지만 버리고 내용을 로그로 남긴다.
+ * 실패한 저장 시도 수(chat.message.write-behind.failures)와 버린 메시지 수(chat.message.write-behind.dropped)를 기록한다.
+ *
+ * enqueue 와 shutdown 은 read/write lock 으로 배타적이다. 종료가 시작된 뒤에는 메시지를 받지 않으므로
+ * 마지막 drain 이후에 큐에 들어와 사라지는 메시지가 없다.
+ */
+@Slf4j
+@Component
+public class ChatMessageWriteBehindQueue {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5_000;
+    private static final String INSERT_SQL =
+            "INSERT INTO CHAT_MESSAGE (CHAT_MESSAGE_ID, CHAT_ROOM_ID, MEMBER_ID, MESSAGE, CHAT_TYPE, SENT_AT) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatRoomSummaryService chatRoomSummaryService;
+    private final UnreadCounterService unreadCounterService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final long offerTimeoutMillis;
+    private final BlockingQueue<PendingMessage> queue;
+    private final ReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+    private final Counter failureCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ChatMessageWriteBehindQueue(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       ChatRoomSummaryService chatRoomSummaryService,
+                                       UnreadCounterService unreadCounterService,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${chat.message.write-behind.enabled:false}") boolean enabled,
+                                       @Value("${chat.message.write-behind.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${chat.message.write-behind.batch-size:500}") int batchSize,
+                                       @Value("${chat.message.write-behind.linger-ms:20}") long lingerMillis,
+                                       @Value("${chat.message.write-behind.offer-timeout-ms:1000}") long offerTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chatRoomSummaryService = chatRoomSummaryService;
+        this.unreadCounterService = unreadCounterService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.failureCounter = meterRegistry.counter("chat.message.write-behind.failures");
+        this.droppedCounter = meterRegistry.counter("chat.message.write-behind.dropped");
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "chat-message-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("chat message write-behind 시작 (batchSize={}, lingerMs={})", batchSize, lingerMillis);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param absentMemberIds 안 읽은 메시지 수를 올려야 하는 회원 id
+     */
+    public void enqueue(ChatMessage chatMessage, long[] absentMemberIds) {
+        boolean accepted;
+        // shutdown 이 write lock 으로 running 을 내리므로, read lock 을 잡은 동안 받은 메시지는 반드시 마지막 drain 에 포함된다
+        lifecycleLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("chat message write-behind queue is not running");
+            }
+            accepted = queue.offer(new PendingMessage(chatMessage, absentMemberIds), offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for write-behind queue", e);
+        } finally {
+            lifecycleLock.readLock().unlock();
+        }
+        if (!accepted) {
+            throw new IllegalStateException("chat message write-behind queue is full");
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(lingerMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(batch);
+                log.debug("chat message {}건 저장", batch.size());
+                return;
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                log.warn("chat message {}건 저장 실패 {}회 (id {} ~ {}) : {}", batch.size(), attempt,
+                        batch.get(0).chatMessage().getId(), batch.get(batch.size() - 1).chatMessage().getId(), e.toString());
+                if (!isTransient(e)) {
+                    bisect(batch, e);
+                    return;
+                }
+                if ((!running || Thread.currentThread().isInterrupted()) && attempt >= MAX_ATTEMPTS) {
+                    // 종료 중에는 DB 가 돌아오기를 끝없이 기다리지 않는다
+                    batch.forEach(pending -> drop(pending, e));
+                    return;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * 저장할 수 없는 메시지 하나 때문에 batch 전체를 잃지 않도록 나눠서 다시 저장한다
+     */
+    private void bisect(List<PendingMessage> batch, RuntimeException cause) {
+        if (batch.size() == 1) {
+            drop(batch.get(0), cause);
+            return;
+        }
+        int half = batch.size() / 2;
+        flush(new ArrayList<>(batch.subList(0, half)));
+        flush(new ArrayList<>(batch.subList(half, batch.size())));
+    }
+
+    /**
+     * 기다렸다 다시 하면 성공할 수 있는 오류 (DB 연결 실패, 커넥션 풀 timeout, lock / query timeout 등).
+     * 그 외(제약조건 위반, 잘못된 데이터 등)는 같은 batch 로 다시 시도해도 실패한다.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    private void insert(List<PendingMessage> batch) {
+        // 메시지 insert 와 채팅방 요약 / 안 읽은 수 갱신을 한 트랜잭션으로 묶는다. 요약은 방마다 한번씩만 갱신
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, pending) -> {
+                ChatMessage chatMessage = pending.chatMessage();
+                ps.setLong(1, chatMessage.getId());
+                ps.setLong(2, chatMessage.getChatRoom().getId());
+                ps.setObject(3, chatMessage.getMemberId());
+                ps.setString(4, chatMessage.getMessage());
+                ps.setString(5, chatMessage.getChatType() == null ? null : chatMessage.getChatType().name());
+                ps.setTimestamp(6, chatMessage.getSentAt() == null ? null : Timestamp.valueOf(chatMessage.getSentAt()));
+            });
+
+            Map<Long, ChatMessage> lastByRoom = new HashMap<>();
+            Map<Long, Integer> countByRoom = new HashMap<>();
+            LongObjectHashMap<LongIntHashMap> unreadDeltas = new LongObjectHashMap<>();
+            for (PendingMessage pending : batch) {
+                ChatMessage chatMessage = pending.chatMessage();
+                Long roomId = chatMessage.getChatRoom().getId();
+                lastByRoom.merge(roomId, chatMessage, (a, b) -> b.getSentAt().isBefore(a.getSentAt()) ? a : b);
+                countByRoom.merge(roomId, 1, Integer::sum);
+                LongIntHashMap roomDeltas = unreadDeltas.computeIfAbsent(roomId, id -> new LongIntHashMap());
+                for (long memberId : pending.absentMemberIds()) {
+                    roomDeltas.addTo(memberId, 1);
+                }
+            }
+            lastByRoom.forEach((roomId, last) -> chatRoomSummaryService.onMessagesSaved(
+                    roomId, last.getId(), last.getMessage(), last.getSentAt(), countByRoom.get(roomId)));
+            unreadCounterService.incrementAll(unreadDeltas);
+        });
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(Math.min(RETRY_BACKOFF_MILLIS << Math.min(attempt - 1, 10), MAX_RETRY_BACKOFF_MILLIS));
+        } catch (InterruptedException e) {
+            // 종료 중이면 기다리지 않고 바로 다시 시도한다
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drop(PendingMessage pending, RuntimeException cause) {
+        droppedCounter.increment();
+        ChatMessage chatMessage = pending.chatMessage();
+        log.error("chat message 저장 포기 : id={}, roomId={}, memberId={}, sentAt={}, chatType={}, message={}",
+                chatMessage.getId(), chatMessage.getChatRoom().getId(), chatMessage.getMemberId(),
+                chatMessage.getSentAt(), chatMessage.getChatType(), chatMessage.getMessage(), cause);
+    }
+
+    /**
+     * 종료시 더 이상 메시지를 받지 않고, 큐에 남은 메시지를 모두 저장한 뒤 끝낸다.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        lifecycleLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lifecycleLock.writeLock().unlock();
+        }
+        flusher.join();
+
+        List<PendingMessage> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            flush(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
+        log.info("chat message write-behind 종료");
+    }
+
+    private record PendingMessage(ChatMessage chatMessage, long[] absentMemberIds) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.chat.kit.service;
+
+import com.chat.kit.customException.NoMemberException;
+import com.chat.kit.persistence.domain.ChatRoom;
+import com.chat.kit.persistence.domain.MemberChatRoom;
+import com.chat.kit.persistence.domain.RoomType;
+import com.chat.kit.persistence.repository.ChatRoomRepository;
+import com.chat.kit.persistence.repository.MemberChatRoomRepository;
+import com.chat.kit.persistence.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 회원 집합으로 채팅방을 찾거나 만든다.
+ *
+ * 채팅방은 참여자 집합 키(ChatRoom.memberSetKey, unique)로 찾으므로 조회는 인덱스 한번이다.
+ * 같은 회원들로 동시에 생성 요청이 오면 한쪽만 insert 에 성공하고, 나머지는 unique 위반 후 먼저 만들어진 방을 다시 조회한다.
+ * 위반이 호출한 쪽 트랜잭션을 rollback-only 로 만들지 않도록 생성은 별도 트랜잭션에서 한다.
+ * 트랜잭션 안에서 호출하면 커넥션을 두개 잡게 되므로 트랜잭션 밖에서 호출한다 (ChatService 는 NOT_SUPPORTED).
+ *
+ * 참여자가 많은 방도 round trip 이 회원 수에 비례하지 않도록, 회원 확인은 IN 조회 한번(MEMBER_ID_CHUNK 단위)으로 하고
+ * MemberChatRoom 은 Member 를 읽지 않고 reference 로 만들어 saveAll 한다 (hibernate.jdbc.batch_size / order_inserts 로 batch insert).
+ */
+@Slf4j
+@Service
+public class ChatRoomCreationService {
+    private static final int MEMBER_ID_CHUNK = 1000;
+
+    private final MemberRepository memberRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final MemberChatRoomRepository memberChatRoomRepository;
+    private final ChatRoomSummaryService chatRoomSummaryService;
+    private final ChatRoomRosterCache chatRoomRosterCache;
+    private final TransactionTemplate newTransaction;
+
+    public ChatRoomCreationService(MemberRepository memberRepository,
+                                   ChatRoomRepository chatRoomRepository,
+                                   MemberChatRoomRepository memberChatRoomRepository,
+                                   ChatRoomSummaryService chatRoomSummaryService,
+                                   ChatRoomRosterCache chatRoomRosterCache,
+                                   PlatformTransactionManager transactionManager) {
+        this.memberRepository = memberRepository;
+        this.chatRoomRepository = chatRoomRepository;
+        this.memberChatRoomRepository = memberChatRoomRepository;
+        this.chatRoomSummaryService = chatRoomSummaryService;
+        this.chatRoomRosterCache = chatRoomRosterCache;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return 회원들의 채팅방 id. 이미 있으면 기존 방, 없으면 새로 만든 방
+     */
+    public FoundChatRoom findOrCreate(List<Long> memberIds) {
+        String memberSetKey = ChatRoom.memberSetKeyOf(memberIds);
+        return chatRoomRepository.findIdByMemberSetKey(memberSetKey)
+                .map(roomId -> new FoundChatRoom(roomId, false))
+                .orElseGet(() -> create(memberIds, memberSetKey));
+    }
+
+    private FoundChatRoom create(List<Long> memberIds, String memberSetKey) {
+        try {
+            Long roomId = newTransaction.execute(status -> insert(memberIds, memberSetKey));
+            log.info("채팅방 {} 생성 (회원 {}명)", roomId, memberIds.size());
+            return new FoundChatRoom(roomId, true);
+        } catch (DataIntegrityViolationException e) {
+            // 다른 요청이 같은 회원들로 먼저 만든 경우
+            Long roomId = chatRoomRepository.findIdByMemberSetKey(memberSetKey).orElseThrow(() -> e);
+            log.debug("채팅방 {} 이 이미 생성됨", roomId);
+            return new FoundChatRoom(roomId, false);
+        }
+    }
+
+    private Long insert(List<Long> memberIds, String memberSetKey) {
+        List<Long> distinctMemberIds = memberIds.stream().distinct().toList();
+        ChatRoom chatRoom = ChatRoom.builder()
+                .roomType(distinctMemberIds.size() == 2 ? RoomType.ONE2ONE : RoomType.MULTIPLE)
+                .memberSetKey(memberSetKey)
+                .build();
+        // unique 위반을 이 자리에서 확인하도록 바로 insert
+        chatRoomRepository.saveAndFlush(chatRoom);
+
+        validateMembers(distinctMemberIds);
+        LocalDateTime now = LocalDateTime.now();
+        List<MemberChatRoom> memberChatRooms = new ArrayList<>(distinctMemberIds.size());
+        for (Long memberId : distinctMemberIds) {
+            memberChatRooms.add(MemberChatRoom.builder()
+                    .chatRoom(chatRoom)
+                    .member(memberRepository.getReferenceById(memberId))
+                    .lastLeavedTime(now)
+                    .build());
+        }
+        memberChatRoomRepository.saveAll(memberChatRooms);
+        chatRoomSummaryService.createSummary(chatRoom.getId(), distinctMemberIds);
+        chatRoomRosterCache.evict(chatRoom.getId());
+        return chatRoom.getId();
+    }
+
+    private void validateMembers(List<Long> memberIds) {
+        int found = 0;
+        for (int from = 0; from < memberIds.size(); from += MEMBER_ID_CHUNK) {
+            found += memberRepository.findIdsByIdIn(memberIds.subList(from, Math.min(from + MEMBER_ID_CHUNK, memberIds.size()))).size();
+        }
+        if (found != memberIds.size()) {
+            throw new NoMemberException("Member not found");
+        }
+    }
+
+    public record FoundChatRoom(Long roomId, boolean created) {
+    }
+}
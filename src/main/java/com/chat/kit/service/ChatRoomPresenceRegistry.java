@@ -0,0 +1,348 @@
+package com.chat.kit.service;
+
+import com.chat.kit.collection.LongHashSet;
+import com.chat.kit.collection.LongIntHashMap;
+import com.chat.kit.collection.LongObjectHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 채팅방(/sub/chatroom/{roomId})에 현재 들어와 있는 회원 인덱스.
+ * SimpUserRegistry 의 전체 구독을 매 메시지마다 훑는 대신, SUBSCRIBE / UNSUBSCRIBE / DISCONNECT 시점에 갱신해 둔다.
+ *
+ * 한 회원이 여러 세션(탭, 기기)으로 같은 방을 구독할 수 있으므로 roomId -> (memberId -> 구독 수) 로 관리하고,
+ * 구독 수가 0이 되면 방에서 나간 것으로 본다.
+ *
+ * 여러 노드로 운영할 때는 다른 노드의 입장/퇴장을 {@link #applyRemote} 로 받아 노드별로 따로 보관하고,
+ * 조회시 로컬과 함께 확인한다. 이 노드의 입장/퇴장은 {@link PresenceListener} 로 알린다.
+ *
+ * 메시지마다 참여자 수만큼 조회되므로 roomId / memberId 는 long 전용 맵(com.chat.kit.collection)에 Long 으로 감싸지 않고 보관한다.
+ * 인덱스는 roomId 로 STRIPE_COUNT 개 stripe 에 나눠 stripe 마다 read/write lock 을 둔다.
+ * 조회(메시지 전송)는 그 방 stripe 의 read lock, 입장/퇴장은 write lock 만 잡으므로 다른 방끼리는 서로 막지 않는다.
+ *
+ * 입장/퇴장 알림은 상태를 바꾼 lock 안에서 stripe 의 큐에 넣고, lock 밖에서 한 스레드가 넣은 순서대로 실행한다.
+ * 같은 회원이 여러 세션으로 나갔다 들어와도 알림(다른 노드로 가는 PRESENCE 이벤트)이 상태가 바뀐 순서와 같다.
+ */
+@Slf4j
+@Component
+public class ChatRoomPresenceRegistry {
+    public static final String CHAT_ROOM_DESTINATION_PREFIX = "/sub/chatroom/";
+    private static final int STRIPE_COUNT = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    // sessionId -> 세션 정보 (UNSUBSCRIBE 는 subscriptionId 만 오기 때문에 따로 보관)
+    private final Map<String, SessionSubscriptions> sessions = new ConcurrentHashMap<>();
+    private final List<PresenceListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ChatRoomPresenceRegistry() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public interface PresenceListener {
+        void onPresenceChanged(long roomId, long memberId, boolean joined);
+    }
+
+    public void addListener(PresenceListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return 채팅방 구독이면 roomId, 아니면 null
+     */
+    public Long subscribe(String sessionId, String subscriptionId, Long memberId, String destination) {
+        Long roomId = parseRoomId(destination);
+        if (sessionId == null || subscriptionId == null || memberId == null || roomId == null) {
+            return null;
+        }
+        SessionSubscriptions session = sessions.computeIfAbsent(sessionId, id -> new SessionSubscriptions(memberId));
+        if (session.rooms.putIfAbsent(subscriptionId, roomId) == null) {
+            join(roomId, memberId);
+        }
+        return roomId;
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        if (sessionId == null || subscriptionId == null) {
+            return;
+        }
+        SessionSubscriptions session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        Long roomId = session.rooms.remove(subscriptionId);
+        if (roomId != null) {
+            leave(roomId, session.memberId);
+        }
+    }
+
+    /**
+     * 세션 종료시 해당 세션의 모든 채팅방 구독을 정리한다. 여러번 호출되어도 안전하다.
+     */
+    public void disconnect(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        SessionSubscriptions session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        session.rooms.values().forEach(roomId -> leave(roomId, session.memberId));
+        log.debug("session {} (member {}) presence 정리 완료", sessionId, session.memberId);
+    }
+
+    /**
+     * 현재 채팅방에 들어와 있는 회원 id 목록 (다른 노드 포함)
+     */
+    public LongHashSet getOnlineMemberIds(long roomId) {
+        LongHashSet result = new LongHashSet();
+        Stripe stripe = stripeOf(roomId);
+        stripe.lock.readLock().lock();
+        try {
+            LongIntHashMap members = stripe.roomMembers.get(roomId);
+            if (members != null) {
+                members.forEach((memberId, sessionCount) -> result.add(memberId));
+            }
+            for (LongObjectHashMap<LongHashSet> rooms : stripe.remoteRoomMembers.values()) {
+                LongHashSet remote = rooms.get(roomId);
+                if (remote != null) {
+                    remote.forEach(result::add);
+                }
+            }
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public boolean isOnline(long roomId, long memberId) {
+        Stripe stripe = stripeOf(roomId);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.isOnline(roomId, memberId);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * memberIds 중 excludedMemberId 와 지금 방에 들어와 있는 회원(다른 노드 포함)을 뺀 나머지.
+     * 메시지 한건의 참여자 전체를 read lock 한번으로 확인한다.
+     */
+    public long[] filterAbsent(long roomId, long[] memberIds, long excludedMemberId) {
+        long[] absent = new long[memberIds.length];
+        int count = 0;
+        Stripe stripe = stripeOf(roomId);
+        stripe.lock.readLock().lock();
+        try {
+            for (long memberId : memberIds) {
+                if (memberId != excludedMemberId && !stripe.isOnline(roomId, memberId)) {
+                    absent[count++] = memberId;
+                }
+            }
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+        return (count == absent.length) ? absent : Arrays.copyOf(absent, count);
+    }
+
+    /**
+     * 이 노드에서 채팅방을 구독중인 세션 수 (fan-out 비용 기준)
+     */
+    public int getLocalSubscriberCount(long roomId) {
+        Stripe stripe = stripeOf(roomId);
+        stripe.lock.readLock().lock();
+        try {
+            LongIntHashMap members = stripe.roomMembers.get(roomId);
+            if (members == null) {
+                return 0;
+            }
+            int[] count = {0};
+            members.forEach((memberId, sessionCount) -> count[0] += sessionCount);
+            return count[0];
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 이 노드에 들어와 있는 (roomId, memberId) 전체를 넘겨준다. 다른 노드와 다시 연결됐을 때 동기화용.
+     * 입장/퇴장 알림과 같은 큐로 넘기므로, 그 사이 나간 회원의 입장이 퇴장보다 늦게 전달되지 않는다.
+     */
+    public void forEachLocal(PresenceListener consumer) {
+        for (Stripe stripe : stripes) {
+            List<long[]> entries = new ArrayList<>();
+            stripe.lock.readLock().lock();
+            try {
+                stripe.roomMembers.forEach((roomId, members) ->
+                        members.forEach((memberId, sessionCount) -> entries.add(new long[]{roomId, memberId})));
+                if (!entries.isEmpty()) {
+                    stripe.notifications.add(() -> entries.forEach(entry -> consumer.onPresenceChanged(entry[0], entry[1], true)));
+                }
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+            stripe.notifyInOrder();
+        }
+    }
+
+    /**
+     * 다른 노드의 입장/퇴장 반영. 같은 이벤트가 여러번 와도 결과는 같다.
+     */
+    public void applyRemote(String nodeId, long roomId, long memberId, boolean joined) {
+        Stripe stripe = stripeOf(roomId);
+        stripe.lock.writeLock().lock();
+        try {
+            LongObjectHashMap<LongHashSet> rooms = stripe.remoteRoomMembers.computeIfAbsent(nodeId, id -> new LongObjectHashMap<>());
+            if (joined) {
+                rooms.computeIfAbsent(roomId, id -> new LongHashSet()).add(memberId);
+            } else {
+                LongHashSet members = rooms.get(roomId);
+                if (members != null && members.remove(memberId) && members.isEmpty()) {
+                    rooms.remove(roomId);
+                }
+            }
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 연결이 끊긴 노드의 presence 를 모두 지운다.
+     */
+    public void clearRemote(String nodeId) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.remoteRoomMembers.remove(nodeId);
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Stripe stripeOf(long roomId) {
+        return stripes[Math.floorMod(Long.hashCode(roomId), STRIPE_COUNT)];
+    }
+
+    private void join(long roomId, long memberId) {
+        Stripe stripe = stripeOf(roomId);
+        stripe.lock.writeLock().lock();
+        try {
+            if (stripe.roomMembers.computeIfAbsent(roomId, id -> new LongIntHashMap()).addTo(memberId, 1) == 1) {
+                stripe.notifications.add(() -> notifyListeners(roomId, memberId, true));
+            }
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+        stripe.notifyInOrder();
+    }
+
+    private void leave(long roomId, long memberId) {
+        Stripe stripe = stripeOf(roomId);
+        stripe.lock.writeLock().lock();
+        try {
+            LongIntHashMap members = stripe.roomMembers.get(roomId);
+            if (members != null && members.containsKey(memberId)) {
+                if (members.addTo(memberId, -1) == 0) {
+                    stripe.notifications.add(() -> notifyListeners(roomId, memberId, false));
+                }
+                if (members.isEmpty()) {
+                    stripe.roomMembers.remove(roomId);
+                }
+            }
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+        stripe.notifyInOrder();
+    }
+
+    private void notifyListeners(long roomId, long memberId, boolean joined) {
+        for (PresenceListener listener : listeners) {
+            try {
+                listener.onPresenceChanged(roomId, memberId, joined);
+            } catch (RuntimeException e) {
+                log.warn("채팅방 {} 회원 {} presence 알림 실패 : {}", roomId, memberId, e.toString());
+            }
+        }
+    }
+
+    /**
+     * /sub/chatroom/{roomId} 형태면 roomId, 아니면 null
+     */
+    public static Long parseRoomId(String destination) {
+        if (destination == null || !destination.startsWith(CHAT_ROOM_DESTINATION_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(destination.substring(CHAT_ROOM_DESTINATION_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static class Stripe {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // roomId -> (memberId -> 해당 방을 구독중인 세션 수)
+        private final LongObjectHashMap<LongIntHashMap> roomMembers = new LongObjectHashMap<>();
+        // nodeId -> (roomId -> 다른 노드에서 방에 들어와 있는 회원)
+        private final Map<String, LongObjectHashMap<LongHashSet>> remoteRoomMembers = new HashMap<>();
+        // lock 안에서 넣은 입장/퇴장 알림. notifying 을 잡은 스레드 하나만 꺼내 실행한다
+        private final Queue<Runnable> notifications = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean notifying = new AtomicBoolean();
+
+        private boolean isOnline(long roomId, long memberId) {
+            LongIntHashMap members = roomMembers.get(roomId);
+            if (members != null && members.containsKey(memberId)) {
+                return true;
+            }
+            for (LongObjectHashMap<LongHashSet> rooms : remoteRoomMembers.values()) {
+                LongHashSet remote = rooms.get(roomId);
+                if (remote != null && remote.contains(memberId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 다른 스레드가 실행 중이면 그 스레드가 이어서 실행한다. 실행 중인 스레드가 끝낸 직후 넣은 알림도 놓치지 않도록 다시 확인한다.
+         */
+        private void notifyInOrder() {
+            while (!notifications.isEmpty() && notifying.compareAndSet(false, true)) {
+                try {
+                    Runnable notification;
+                    while ((notification = notifications.poll()) != null) {
+                        notification.run();
+                    }
+                } finally {
+                    notifying.set(false);
+                }
+            }
+        }
+    }
+
+    private static class SessionSubscriptions {
+        private final Long memberId;
+        // subscriptionId -> roomId
+        private final Map<String, Long> rooms = new ConcurrentHashMap<>();
+
+        private SessionSubscriptions(Long memberId) {
+            this.memberId = memberId;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.chat.kit.service;
+
+import com.chat.kit.persistence.repository.MemberChatRoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 채팅방 참여자 명단 캐시 (roomId -> 참여 회원 id 배열).
+ * 메시지 전송시마다 MemberChatRoom 을 조회하지 않도록, 한번 읽은 명단을 primitive long[] 으로 보관한다.
+ *
+ * 최대 크기를 넘으면 가장 오래 사용되지 않은 방부터 제거(LRU)하고,
+ * 채팅방 생성/입장/퇴장 등 참여자가 바뀌는 곳에서는 반드시 {@link #evict(Long)} 를 호출해야 한다.
+ *
+ * 명단을 읽는 동안 evict 가 불리면 그 읽기 결과는 이전 명단일 수 있으므로 캐시에 넣지 않는다.
+ * 방마다 진행중인 읽기를 표시해 두고, evict 는 그 표시를 지워서 읽기가 끝났을 때 넣을지 판단하게 한다.
+ */
+@Slf4j
+@Component
+public class ChatRoomRosterCache {
+    private final MemberChatRoomRepository memberChatRoomRepository;
+    private final Map<Long, long[]> rosters;
+    // roomId -> 진행중인 읽기 표시. evict 되면 지워지고, 표시가 그대로일 때만 읽은 명단을 캐시에 넣는다 (rosters 로 동기화)
+    private final Map<Long, Object> pendingLoads = new HashMap<>();
+
+    public ChatRoomRosterCache(MemberChatRoomRepository memberChatRoomRepository,
+                               @Value("${chat.roster-cache.max-size:10000}") int maxSize) {
+        this.memberChatRoomRepository = memberChatRoomRepository;
+        this.rosters = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 채팅방 참여 회원 id 목록. 반환된 배열은 공유되므로 수정하면 안된다.
+     */
+    public long[] getMemberIds(Long roomId) {
+        long[] memberIds;
+        Object load;
+        synchronized (rosters) {
+            memberIds = rosters.get(roomId);
+            if (memberIds != null) {
+                return memberIds;
+            }
+            // 같은 방을 동시에 읽는 요청은 같은 표시를 공유한다
+            load = pendingLoads.computeIfAbsent(roomId, id -> new Object());
+        }
+
+        try {
+            List<Long> loaded = memberChatRoomRepository.findMemberIdsByChatRoomId(roomId);
+            memberIds = loaded.stream().mapToLong(Long::longValue).toArray();
+        } catch (RuntimeException e) {
+            synchronized (rosters) {
+                pendingLoads.remove(roomId, load);
+            }
+            throw e;
+        }
+        synchronized (rosters) {
+            // 읽는 동안 evict 되지 않았을 때만 넣는다
+            if (pendingLoads.get(roomId) == load) {
+                rosters.put(roomId, memberIds);
+                pendingLoads.remove(roomId);
+            }
+        }
+        return memberIds;
+    }
+
+    /**
+     * 참여자 변경시 호출. 트랜잭션 안이라면 커밋 이전에 다시 읽힌 명단이 남지 않도록 커밋 후에도 한번 더 지운다.
+     */
+    public void evict(Long roomId) {
+        remove(roomId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(roomId);
+                }
+            });
+        }
+    }
+
+    private void remove(Long roomId) {
+        synchronized (rosters) {
+            rosters.remove(roomId);
+            pendingLoads.remove(roomId);
+        }
+        log.debug("채팅방 {} 참여자 명단 캐시 제거", roomId);
+    }
+}
@@ -0,0 +1,141 @@
+package com.chat.kit.service;
+
+import com.chat.kit.persistence.domain.ChatMessage;
+import com.chat.kit.persistence.domain.ChatRoomSummary;
+import com.chat.kit.persistence.projection.ChatMessageView;
+import com.chat.kit.persistence.repository.ChatMessageRepository;
+import com.chat.kit.persistence.repository.ChatRoomSummaryRepository;
+import com.chat.kit.persistence.repository.MemberChatRoomRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅방 요약(ChatRoomSummary) 유지 로직.
+ *  1) 채팅방 생성시 요약 행 생성
+ *  2) 메시지 저장시 마지막 메시지 / 메시지 수 증분 갱신
+ *  3) 요약 행이 없는 기존 채팅방은 처음 메시지가 저장될 때 DB 에서 다시 계산
+ *
+ * 메시지 저장과 같은 트랜잭션 안에서 호출되어야 한다.
+ * 재계산은 메시지 저장 트랜잭션이 커밋된 뒤 전용 스레드에서 커밋된 메시지 기준으로 한다 (이번 메시지 포함).
+ * 저장 트랜잭션이 커넥션을 잡은 채로 두번째 커넥션을 기다리지 않게 하기 위해서다.
+ * 요약 행은 채팅방 목록(마지막 메시지 최신순 정렬)에 쓰인다.
+ */
+@Slf4j
+@Service
+@Transactional
+public class ChatRoomSummaryService {
+    private final ChatRoomSummaryRepository chatRoomSummaryRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final MemberChatRoomRepository memberChatRoomRepository;
+    private final TransactionTemplate transaction;
+    // 같은 노드의 재계산은 차례로 실행되어 서로 덮어쓰지 않는다
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-summary-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChatRoomSummaryService(ChatRoomSummaryRepository chatRoomSummaryRepository,
+                                  ChatMessageRepository chatMessageRepository,
+                                  MemberChatRoomRepository memberChatRoomRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.chatRoomSummaryRepository = chatRoomSummaryRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.memberChatRoomRepository = memberChatRoomRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        rebuildExecutor.shutdown();
+        rebuildExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public void createSummary(Long roomId, List<Long> memberIds) {
+        chatRoomSummaryRepository.save(ChatRoomSummary.builder()
+                .roomId(roomId)
+                .participantIds(ChatRoomSummary.joinIds(memberIds))
+                .build());
+    }
+
+    public void onMessageSaved(ChatMessage chatMessage) {
+        onMessagesSaved(chatMessage.getChatRoom().getId(), chatMessage.getId(), chatMessage.getMessage(), chatMessage.getSentAt(), 1);
+    }
+
+    /**
+     * 한 채팅방에 저장된 메시지 count 건을 반영한다. (write-behind 에서는 flush 단위로 묶어서 호출)
+     */
+    public void onMessagesSaved(Long roomId, Long lastMessageId, String lastMessage, LocalDateTime lastSentAt, long count) {
+        int updated = chatRoomSummaryRepository.applyMessages(roomId, lastMessageId, lastMessage, lastSentAt, count);
+        if (updated == 0) {
+            rebuildAfterCommit(roomId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public String findLastMessage(Long roomId) {
+        return chatRoomSummaryRepository.findById(roomId)
+                .map(ChatRoomSummary::getLastMessage)
+                .orElseGet(() -> chatMessageRepository.findLastViewByChatRoomId(roomId)
+                        .map(ChatMessageView::getMessage)
+                        .orElse(""));
+    }
+
+    private void rebuildAfterCommit(Long roomId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuildExecutor.execute(() -> rebuildSafely(roomId));
+                }
+            });
+        } else {
+            rebuildExecutor.execute(() -> rebuildSafely(roomId));
+        }
+    }
+
+    private void rebuild(Long roomId) {
+        try {
+            transaction.executeWithoutResult(status -> recalculate(roomId));
+        } catch (DataIntegrityViolationException e) {
+            // 다른 노드가 그 사이 요약 행을 만든 경우, 있는 행을 다시 계산한 값으로 덮어쓴다
+            log.debug("채팅방 {} 요약이 이미 생성됨, 다시 계산", roomId);
+            transaction.executeWithoutResult(status -> recalculate(roomId));
+        }
+        log.info("채팅방 {} 요약 재계산", roomId);
+    }
+
+    private void recalculate(Long roomId) {
+        ChatRoomSummary summary = chatRoomSummaryRepository.findById(roomId)
+                .orElseGet(() -> ChatRoomSummary.builder().roomId(roomId).build());
+        summary.setMessageCount(chatMessageRepository.countByChatRoomId(roomId));
+        summary.setParticipantIds(ChatRoomSummary.joinIds(memberChatRoomRepository.findMemberIdsByChatRoomId(roomId)));
+        chatMessageRepository.findLastViewByChatRoomId(roomId).ifPresent(last -> {
+            summary.setLastMessageId(last.getId());
+            summary.setLastMessage(last.getMessage());
+            summary.setLastSentAt(last.getSentAt());
+        });
+        chatRoomSummaryRepository.saveAndFlush(summary);
+    }
+
+    private void rebuildSafely(Long roomId) {
+        try {
+            rebuild(roomId);
+        } catch (RuntimeException e) {
+            log.error("채팅방 {} 요약 재계산 실패", roomId, e);
+        }
+    }
+}
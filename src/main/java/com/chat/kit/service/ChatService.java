@@ -1,25 +1,35 @@
 package com.chat.kit.service;
 
 import com.chat.kit.api.request.FindChatRoomDto;
+import com.chat.kit.api.request.MessageCursor;
 import com.chat.kit.api.request.RequestChatMessage;
 import com.chat.kit.api.response.common.ChatRoomListResponse;
+import com.chat.kit.api.response.common.ChatRoomMessagesPageResponse;
 import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.customException.InvalidCursorException;
 import com.chat.kit.customException.NoChatRoomException;
 import com.chat.kit.customException.NoMemberException;
 import com.chat.kit.persistence.domain.*;
+import com.chat.kit.persistence.projection.ChatMessageView;
+import com.chat.kit.persistence.projection.ChatRoomSummaryView;
 import com.chat.kit.persistence.repository.ChatMessageRepository;
 import com.chat.kit.persistence.repository.ChatRoomRepository;
+import com.chat.kit.persistence.repository.ChatRoomSummaryRepository;
 import com.chat.kit.persistence.repository.MemberChatRoomRepository;
 import com.chat.kit.persistence.repository.MemberRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 
@@ -39,159 +49,131 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @Transactional
 public class ChatService {
+    public static final int DEFAULT_MESSAGE_PAGE_SIZE = 50;
+    public static final int MAX_MESSAGE_PAGE_SIZE = 200;
+
     private final MemberRepository memberRepository;
     private final ChatRoomRepository chatRoomRepository;
     private final MemberChatRoomRepository memberChatRoomRepository;
     private final ChatMessageRepository chatMessageRepository;
-
-
-
+    private final ChatRoomSummaryRepository chatRoomSummaryRepository;
+    private final ChatRoomRosterCache chatRoomRosterCache;
+    private final ChatMessageIdAllocator chatMessageIdAllocator;
+    private final ChatMessageWriteBehindQueue chatMessageWriteBehindQueue;
+    private final ChatRoomSummaryService chatRoomSummaryService;
+    private final UnreadCounterService unreadCounterService;
+    private final ChatRoomCreationService chatRoomCreationService;
+    private final TransactionTemplate transactionTemplate;
+
+
+
+    /**
+     * 회원들의 채팅방을 참여자 집합 키로 찾고, 없으면 새로 만든다. (회원 2명이면 1:1, 그 외에는 그룹 채팅방)
+     * 생성은 ChatRoomCreationService 가 자체 트랜잭션으로 하므로, 커넥션을 두개 잡지 않도록 바깥 트랜잭션 없이 호출한다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatRoomListResponse getChatRoomId(FindChatRoomDto request){
-        return (request.getMemberIds().size()==2) ? getOne2OneChatRoomId( request) : getMultipleChatRoomId( request) ;
-    }
-
-
-
-    public ChatRoomListResponse getOne2OneChatRoomId(FindChatRoomDto request){
-        log.info("getOne2OneChatRoomId 들어옴");
-        // 일단 해당 멤버들이 속한 채팅방 조회한다
-        Optional<Long> one2OneRoomNumber = memberChatRoomRepository.findOne2OneRoomNumber(request.getMemberIds().get(0), request.getMemberIds().get(1));
-
-        if(one2OneRoomNumber.isPresent()){ // 만약 해당 멤버들이 속한 채팅방이 이미 존재하면 db 정보 가져온다
-            log.info("해당 멤버들에 대한 채팅방 정보 이미 존재: {}", one2OneRoomNumber);
-            String lastMsg = findLastMessageByRoomId(one2OneRoomNumber.get());
-            return ChatRoomListResponse.of(one2OneRoomNumber.get(), request.getMemberIds(), MessageReadStatus.UN_REDD, lastMsg);
-
-        }else{ // 만약 해당 멤버들이 속한 채팅방이 존재하지 않으면 새로 생성
-            log.info("해당 멤버들에 대해 채팅방 새로 생성");
-            Long newRoomId = createNewOne2OneChatRoom(request.getMemberIds().get(0), request.getMemberIds().get(1));
-            return ChatRoomListResponse.of(newRoomId, request.getMemberIds(), MessageReadStatus.UN_REDD, "");
-        }
-    }
-
-
-    public ChatRoomListResponse getMultipleChatRoomId(FindChatRoomDto request){
-        log.info("getMultipleChatRoomId 들어옴");
-
-        Optional<Long> multipleRoomNumber = memberChatRoomRepository.findMultipleRoomNumber(request.getMemberIds(), request.getMemberIds().size());
-
-        if(multipleRoomNumber.isPresent()){
-            log.info("해당 멤버들에 대한 채팅방 정보 이미 존재: {}",multipleRoomNumber );
-            String lastMsg = findLastMessageByRoomId(multipleRoomNumber.get());
-            return ChatRoomListResponse.of(multipleRoomNumber.get(), request.getMemberIds(), MessageReadStatus.UN_REDD, lastMsg);
-        }else{
-            log.info("해당 멤버들에 대해 채팅방 새로 생성");
-            Long newRoomId = createNewMultipleChatRoom(request.getMemberIds());
-            return ChatRoomListResponse.of(newRoomId, request.getMemberIds(), MessageReadStatus.UN_REDD, "");
+        ChatRoomCreationService.FoundChatRoom found = chatRoomCreationService.findOrCreate(request.getMemberIds());
+        if(found.created()){
+            log.info("해당 멤버들에 대해 채팅방 새로 생성: {}", found.roomId());
+            return ChatRoomListResponse.of(found.roomId(), request.getMemberIds(), MessageReadStatus.UN_REDD, "");
         }
+        log.info("해당 멤버들에 대한 채팅방 정보 이미 존재: {}", found.roomId());
+        String lastMsg = findLastMessageByRoomId(found.roomId());
+        return ChatRoomListResponse.of(found.roomId(), request.getMemberIds(), MessageReadStatus.UN_REDD, lastMsg);
     }
 
     // TODO : 따로 채팅방 생성 로직만 구현 가능하게 하고 싶음 컨트롤러 단에 추가하세용
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Long createNewChatRoom(List<Long> memberIds){
-        Long  response =
-                (memberIds.size()==2) ? createNewOne2OneChatRoom(memberIds.get(0), memberIds.get(1)) : createNewMultipleChatRoom( memberIds ) ;
-        return response;
-    }
-
-
-
-    private Long createNewOne2OneChatRoom(Long member1Id, Long member2Id){
-        Member member1 = memberRepository.findById(member1Id)
-                .orElseThrow();
-        Member member2 = memberRepository.findById(member2Id)
-                .orElseThrow();
-
-        ChatRoom createdChatRoom = ChatRoom.builder()
-                .roomType(RoomType.ONE2ONE)
-                .build();
-        chatRoomRepository.save(createdChatRoom);
-
-        MemberChatRoom memberChatRoom1 = MemberChatRoom.builder()
-                .chatRoom(createdChatRoom)
-                .member(member1)
-                .lastLeavedTime(LocalDateTime.now())
-                .build();
-        MemberChatRoom memberChatRoom2 = MemberChatRoom.builder()
-                .chatRoom(createdChatRoom)
-                .member(member2)
-                .lastLeavedTime(LocalDateTime.now())
-                .build();
-
-        memberChatRoomRepository.save(memberChatRoom1);
-        memberChatRoomRepository.save(memberChatRoom2);
-
-        return createdChatRoom.getId();
-    }
-
-
-    private Long createNewMultipleChatRoom(List<Long> memberIds){
-
-        ChatRoom createdChatRoom = ChatRoom.builder()
-                .roomType(RoomType.MULTIPLE)
-                .build();
-        chatRoomRepository.save(createdChatRoom);
-
-
-        memberIds.forEach(memberId -> {
-            Member member = memberRepository.findById(memberId)
-                    .orElseThrow(() -> new NoMemberException("Member not found"));
-            MemberChatRoom memberChatRoom = MemberChatRoom.builder()
-                    .chatRoom(createdChatRoom)
-                    .member(member)
-                    .lastLeavedTime(LocalDateTime.now())
-                    .build();
-            memberChatRoomRepository.save(memberChatRoom);
-        });
-
-
-        return createdChatRoom.getId();
+        return chatRoomCreationService.findOrCreate(memberIds).roomId();
     }
 
 
-    public List<ChatMessage> findChatMessages(Long chatRoomId){
-        Optional<ChatRoom> findChatRoom = chatRoomRepository.findById(chatRoomId);
-        if(findChatRoom.isPresent()){
-            return chatMessageRepository.findBychatRoom(findChatRoom.get());
-        }else{
+    /**
+     * 채팅방 메시지를 (sentAt, id) keyset 으로 페이징 조회한다.
+     * before / after 가 모두 없으면 가장 최근 메시지들을, before 가 있으면 그 이전, after 가 있으면 그 이후 메시지들을 반환한다.
+     */
+    @Transactional(readOnly = true)
+    public ChatRoomMessagesPageResponse findChatMessages(Long chatRoomId, String before, String after, Integer size){
+        if(!chatRoomRepository.existsById(chatRoomId)){
             throw new NoChatRoomException("The chat room id you requested does not exist");
         }
+        if(before != null && after != null){
+            throw new InvalidCursorException("Only one of before or after can be used");
+        }
+        int pageSize = (size == null || size <= 0) ? DEFAULT_MESSAGE_PAGE_SIZE : Math.min(size, MAX_MESSAGE_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1); // 한건 더 읽어서 다음 페이지 존재 여부 확인
+
+        MessageCursor afterCursor = MessageCursor.parse(after);
+        List<ChatMessageView> views;
+        boolean ascending = false;
+        if(afterCursor != null){
+            views = chatMessageRepository.findViewsAfter(chatRoomId, afterCursor.getSentAt(), afterCursor.getMessageId(), limit);
+            ascending = true;
+        }else{
+            MessageCursor beforeCursor = MessageCursor.parse(before);
+            views = (beforeCursor == null)
+                    ? chatMessageRepository.findLatestViews(chatRoomId, limit)
+                    : chatMessageRepository.findViewsBefore(chatRoomId, beforeCursor.getSentAt(), beforeCursor.getMessageId(), limit);
+        }
+
+        boolean hasMore = views.size() > pageSize;
+        List<ChatRoomMessagesResponse> messages = new ArrayList<>(Math.min(views.size(), pageSize));
+        for(int i = 0; i < views.size() && i < pageSize; i++){
+            messages.add(ChatRoomMessagesResponse.of(views.get(i)));
+        }
+        if(!ascending){
+            Collections.reverse(messages);
+        }
+        return ChatRoomMessagesPageResponse.of(messages, hasMore);
     }
 
+    /**
+     * 회원이 참여한 채팅방 목록을 채팅방 요약 테이블과 한번에 조인해서 조회한다.
+     * 마지막 메시지 시각(lastSentAt) 최신순으로 정렬하고, 메시지가 없는 방은 맨 뒤에 온다.
+     */
+    @Transactional(readOnly = true)
     public List<ChatRoomListResponse> getChatRoomList(Long memberId){
-        Optional<Member> findMember = memberRepository.findById(memberId);
-        if(findMember.isPresent()){//존재하는 회원이라면
-            List<ChatRoomListResponse> res = new ArrayList<>();
-            List<MemberChatRoom> memberChatRoom = findMember.get().getMemberChatRoom();//회원이 참여한 채팅방 조회
-            for(MemberChatRoom mc :memberChatRoom){//방별로 방ID, 방에 참여한 회원 id, 안읽은 메시지 상태를 응답으로 생성
-                ChatRoom chatRoom = mc.getChatRoom();
-                List<Long> memberIds = chatRoom.getMemberChatRoomOne().stream().map(r->r.getMember().getId()).toList();//특정 방에 참여한 회원정보 조회
-
-                String lastMsg = "";
-                Optional<ChatMessage> lastMsgBox = chatMessageRepository.findLastMsgByChatRoomId(chatRoom.getId());
-                if(lastMsgBox.isPresent()){
-                    lastMsg = lastMsgBox.get().getMessage();
-                }
-
-                ChatRoomListResponse chatRoomListResponse = ChatRoomListResponse.of(chatRoom.getId(), memberIds, MessageReadStatus.ALL_READ, lastMsg);
-                res.add(chatRoomListResponse);
-            }
-            return res;
-        }else{
+        if(!memberRepository.existsById(memberId)){
             throw new NoMemberException("The member you requested does not exist");
         }
+        List<ChatRoomListResponse> res = new ArrayList<>();
+        for(ChatRoomSummaryView summary : chatRoomSummaryRepository.findViewsByMemberId(memberId)){//방별로 방ID, 방에 참여한 회원 id, 안읽은 메시지 상태를 응답으로 생성
+            List<Long> memberIds = (summary.getParticipantIds() != null)
+                    ? ChatRoomSummary.splitIds(summary.getParticipantIds())
+                    : Arrays.stream(chatRoomRosterCache.getMemberIds(summary.getRoomId())).boxed().toList(); // 요약이 아직 없는 방
+            String lastMsg = (summary.getLastMessage() != null) ? summary.getLastMessage() : "";
+            res.add(ChatRoomListResponse.of(summary.getRoomId(), memberIds, MessageReadStatus.ALL_READ, lastMsg));
+        }
+        return res;
     }
+    /**
+     * 메시지 저장. write-behind 모드에서는 트랜잭션 / 커넥션 없이 큐에 넣고 바로 돌아오고,
+     * 아니면 저장과 요약 / 안 읽은 수 갱신을 한 트랜잭션으로 처리한다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatMessage saveMessage(RequestChatMessage requestChatMessage){
-        Optional<ChatRoom> findChatRoom = chatRoomRepository.findById(requestChatMessage.getRoomId());
-        Optional<Member> findMember = memberRepository.findById(requestChatMessage.getSenderId());
-        if(findChatRoom.isPresent()&&findMember.isPresent()){
+        if(chatMessageWriteBehindQueue.isEnabled()){
+            return saveMessageWriteBehind(requestChatMessage);
+        }
+        return transactionTemplate.execute(status -> saveMessageNow(requestChatMessage));
+    }
+
+    private ChatMessage saveMessageNow(RequestChatMessage requestChatMessage){
+        // 존재 여부만 확인하고 ChatRoom / Member 엔티티는 읽지 않는다
+        if(chatRoomRepository.existsById(requestChatMessage.getRoomId())&&memberRepository.existsById(requestChatMessage.getSenderId())){
             ChatMessage chatMessage = ChatMessage.builder()
-                    .chatRoom(findChatRoom.get())
+                    .chatRoom(chatRoomRepository.getReferenceById(requestChatMessage.getRoomId()))
                     .memberId(requestChatMessage.getSenderId())
                     .message(requestChatMessage.getMessage())
                     .chatType(requestChatMessage.getChatType())
                     .sentAt(LocalDateTime.now())
                     .build();
             chatMessageRepository.save(chatMessage);
+            chatRoomSummaryService.onMessageSaved(chatMessage);
+            unreadCounterService.increment(chatMessage.getChatRoom().getId(),
+                    unreadCounterService.findAbsentMemberIds(chatMessage.getChatRoom().getId(), chatMessage.getMemberId()));
 
             return chatMessage;
         }else{
@@ -199,19 +181,57 @@ public class ChatService {
         }
     }
 
+    /**
+     * write-behind 모드 : id 만 미리 발급받고 저장은 큐에 맡긴다.
+     * 방/회원 존재 여부는 참여자 명단 캐시로 확인하므로 평소에는 DB 를 조회하지 않는다.
+     * 트랜잭션 밖에서 실행되므로 커넥션은 명단 캐시가 비어 있을 때만 잠깐 쓴다.
+     */
+    private ChatMessage saveMessageWriteBehind(RequestChatMessage requestChatMessage){
+        long senderId = requestChatMessage.getSenderId();
+        long[] memberIds = chatRoomRosterCache.getMemberIds(requestChatMessage.getRoomId());
+        if(Arrays.stream(memberIds).noneMatch(memberId -> memberId == senderId)){
+            throw new RuntimeException("the member or room does not exist");
+        }
+
+        ChatMessage chatMessage = ChatMessage.builder()
+                .chatRoom(chatRoomRepository.getReferenceById(requestChatMessage.getRoomId()))
+                .memberId(senderId)
+                .message(requestChatMessage.getMessage())
+                .chatType(requestChatMessage.getChatType())
+                .sentAt(LocalDateTime.now())
+                .build();
+        chatMessage.setId(chatMessageIdAllocator.nextId());
+        chatMessageWriteBehindQueue.enqueue(chatMessage,
+                unreadCounterService.findAbsentMemberIds(requestChatMessage.getRoomId(), senderId));
+
+        return chatMessage;
+    }
+
+
+
+    /**
+     * 회원이 읽지 않은 메시지들을 (sentAt, id) 순으로 size 건씩 반환한다. 다음 페이지는 afterCursor 를 after 로 넘겨 조회
+     */
+    @Transactional(readOnly = true)
+    public ChatRoomMessagesPageResponse findUnreadChats(Long memberId, String after, Integer size) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_MESSAGE_PAGE_SIZE : Math.min(size, MAX_MESSAGE_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
 
+        MessageCursor afterCursor = MessageCursor.parse(after);
+        List<ChatMessageView> views = (afterCursor == null)
+                ? chatMessageRepository.findUnreadViews(memberId, limit)
+                : chatMessageRepository.findUnreadViewsAfter(memberId, afterCursor.getSentAt(), afterCursor.getMessageId(), limit);
 
-    public List<ChatRoomMessagesResponse> findUnreadChats(Long memberId) {
-        List<ChatMessage> messages = chatMessageRepository.findUnReadMsgByMemberId(memberId);
-        return messages.stream()
+        boolean hasMore = views.size() > pageSize;
+        List<ChatRoomMessagesResponse> messages = views.stream()
+                .limit(pageSize)
                 .map(ChatRoomMessagesResponse::of)
                 .collect(Collectors.toList());
+        return ChatRoomMessagesPageResponse.of(messages, hasMore);
     }
 
     private String findLastMessageByRoomId(Long roomId) {
-        return chatMessageRepository.findLastMsgByChatRoomId(roomId)
-                .map(ChatMessage::getMessage)
-                .orElse("");
+        return chatRoomSummaryService.findLastMessage(roomId);
     }
 
 
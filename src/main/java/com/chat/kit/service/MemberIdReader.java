@@ -0,0 +1,75 @@
+package com.chat.kit.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * 회원 일괄 등록 요청 본문에서 회원 id 를 차례로 읽는다. 본문 전체를 메모리에 올리지 않고 스트리밍으로 읽는다.
+ *
+ * 받는 형식 :
+ *  - JSON 배열 : [1, 2, 3] 또는 [{"id":1}, {"id":2}]
+ *  - NDJSON   : 한 줄에 하나씩 1 또는 {"id":1}
+ */
+class MemberIdReader {
+    private static final String ID_FIELD = "id";
+
+    private final JsonParser parser;
+    private boolean started;
+    private boolean array;
+    private boolean finished;
+
+    MemberIdReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * buffer 를 채울 수 있는 만큼 회원 id 를 읽는다.
+     *
+     * @return 읽은 개수, 0 이면 끝
+     */
+    int read(long[] buffer) throws IOException {
+        int count = 0;
+        while (count < buffer.length && !finished) {
+            JsonToken token = parser.nextToken();
+            if (!started) {
+                started = true;
+                array = (token == JsonToken.START_ARRAY);
+                if (array) {
+                    token = parser.nextToken();
+                }
+            }
+            if (token == null || (array && token == JsonToken.END_ARRAY)) {
+                finished = true;
+                break;
+            }
+            buffer[count++] = readId(token);
+        }
+        return count;
+    }
+
+    private long readId(JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "회원 id 는 숫자 또는 {\"id\": 숫자} 여야 합니다: " + token);
+        }
+        Long id = null;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+            String field = parser.currentName();
+            token = parser.nextToken();
+            if (ID_FIELD.equals(field) && token == JsonToken.VALUE_NUMBER_INT) {
+                id = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (id == null) {
+            throw new JsonParseException(parser, "회원 id 가 없습니다");
+        }
+        return id;
+    }
+}
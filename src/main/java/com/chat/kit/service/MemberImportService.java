@@ -0,0 +1,125 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.response.common.MemberImportProgress;
+import com.chat.kit.collection.LongHashSet;
+import com.chat.kit.persistence.repository.MemberRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 회원 일괄 등록 (POST /members/import).
+ *
+ * 요청 본문(JSON 배열 또는 NDJSON)을 스트리밍으로 읽어 chat.member-import.chunk-size 개씩 처리한다.
+ * chunk 마다 이미 있는 회원을 IN 조회 한번으로 걸러내고, 나머지를 JDBC batch insert 한 뒤 커밋하고
+ * 진행 상황({@link MemberImportProgress})을 NDJSON 한 줄로 응답에 쓴다.
+ * 한번에 chunk 하나만 메모리에 두므로 입력 크기와 관계없이 heap 사용량이 일정하다.
+ *
+ * 이미 있는 회원은 건너뛰므로 중간에 실패해도 같은 입력을 다시 보내면 이어서 반영된다.
+ */
+@Slf4j
+@Service
+public class MemberImportService {
+    private static final String INSERT_SQL = "INSERT INTO MEMBER (MEMBER_ID) VALUES (?)";
+
+    private final MemberService memberService;
+    private final MemberRepository memberRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTransaction;
+    private final int chunkSize;
+
+    public MemberImportService(MemberService memberService,
+                               MemberRepository memberRepository,
+                               JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${chat.member-import.chunk-size:1000}") int chunkSize) {
+        this.memberService = memberService;
+        this.memberRepository = memberRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+    }
+
+    public void importMembers(InputStream body, OutputStream out) throws IOException {
+        memberService.checkSystemAuthorization();
+
+        long[] buffer = new long[chunkSize];
+        LongHashSet seen = new LongHashSet();
+        MemberImportProgress progress = new MemberImportProgress();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            MemberIdReader reader = new MemberIdReader(parser);
+            int count;
+            while ((count = reader.read(buffer)) > 0) {
+                int inserted = insertChunk(buffer, count, seen);
+                progress.setChunks(progress.getChunks() + 1);
+                progress.setReceived(progress.getReceived() + count);
+                progress.setInserted(progress.getInserted() + inserted);
+                progress.setSkipped(progress.getReceived() - progress.getInserted());
+                write(out, progress);
+            }
+            progress.setDone(true);
+        } catch (IOException | RuntimeException e) {
+            log.warn("회원 일괄 등록 중단 ({}건 반영) : {}", progress.getInserted(), e.toString());
+            progress.setError(e.getMessage());
+        }
+        write(out, progress);
+        log.info("회원 일괄 등록 : {}건 중 {}건 추가", progress.getReceived(), progress.getInserted());
+    }
+
+    /**
+     * @return 새로 추가한 회원 수
+     */
+    private int insertChunk(long[] buffer, int count, LongHashSet seen) {
+        try {
+            return newTransaction.execute(status -> insertNew(buffer, count, seen));
+        } catch (DataIntegrityViolationException e) {
+            // 다른 요청이 그 사이 같은 회원을 먼저 만든 경우, 다시 걸러서 한번 더 시도한다
+            log.debug("회원 일괄 등록 chunk 재시도 : {}", e.getMessage());
+            return newTransaction.execute(status -> insertNew(buffer, count, seen));
+        }
+    }
+
+    private int insertNew(long[] buffer, int count, LongHashSet seen) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(buffer[i]);
+        }
+        seen.clear();
+        memberRepository.findIdsByIdIn(ids).forEach(seen::add);
+
+        List<Object[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // 이미 있거나 chunk 안에서 중복된 id 는 건너뛴다
+            if (seen.add(buffer[i])) {
+                args.add(new Object[]{buffer[i]});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        }
+        return args.size();
+    }
+
+    private void write(OutputStream out, MemberImportProgress progress) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(progress));
+        out.write('\n');
+        out.flush();
+    }
+}
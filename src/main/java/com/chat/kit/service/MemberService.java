@@ -23,7 +23,7 @@ public class MemberService {
             throw new RuntimeException("Member id is null");
         }
 
-        if(memberRepository.findById(memberDto.getId()).isPresent()) {
+        if(memberRepository.existsById(memberDto.getId())) {
             throw new RuntimeException("Member already exists");
         }
 
@@ -32,7 +32,7 @@ public class MemberService {
         );
     }
 
-    private void checkSystemAuthorization(){
+    public void checkSystemAuthorization(){
         Jwt jwt = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
 
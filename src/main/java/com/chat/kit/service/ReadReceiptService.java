@@ -0,0 +1,322 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.response.common.ReadReceiptResponse;
+import com.chat.kit.cluster.ChatBroadcaster;
+import com.chat.kit.cluster.ChatEvent;
+import com.chat.kit.cluster.ChatEventBus;
+import com.chat.kit.collection.LongHashSet;
+import com.chat.kit.collection.LongLongHashMap;
+import com.chat.kit.persistence.projection.ReadWatermarkView;
+import com.chat.kit.persistence.repository.ChatRoomSummaryRepository;
+import com.chat.kit.persistence.repository.MemberChatRoomRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 읽음 확인.
+ *
+ * 클라이언트가 /pub/read 로 (roomId, messageId) 를 보내면 회원의 방별 마지막 읽은 메시지 id(watermark)를 메모리에서 올린다.
+ *  - chat.read-receipt.flush-ms 마다 바뀐 watermark 만 MEMBER_CHAT_ROOM.LAST_READ_MESSAGE_ID 에 JDBC batch 로 반영한다.
+ *    그 사이 여러번 읽어도 회원/방별로 가장 큰 값 한번만 쓴다. 방의 마지막 메시지까지 읽었으면 UNREAD_COUNT 도 0 으로 되돌린다.
+ *    반영에 실패하면 다음 flush 에서 다시 쓴다.
+ *  - chat.read-receipt.broadcast-ms 마다 watermark 가 바뀐 방의 메시지별 읽은 사람 수({@link ReadReceiptResponse})를
+ *    /sub/chatroom/{roomId}/read 로 보낸다. 읽음 하나마다 DB 를 쓰거나 메시지를 보내지 않는다.
+ *
+ * 읽음은 ChatEventBus 로 모든 노드에 전달되어 각 노드가 자기 구독자에게 읽은 사람 수를 보내고, DB 반영은 받은 노드만 한다.
+ * 방의 watermark 는 처음 쓸 때 DB 에서 읽어 오고, IDLE_MILLIS 동안 읽음이 없으면 메모리에서 내린다.
+ * watermark 는 커지기만 하므로, 보낸 messageId 는 방의 마지막 메시지 id 로 잘라서 아직 없는 메시지까지 읽은 것으로 남지 않게 한다.
+ * 마지막 메시지 id 는 방을 읽어 올 때 채팅방 요약에서 가져오고, 그 뒤로는 ROOM_MESSAGE 이벤트로 올린다.
+ *
+ * LAST_READ_MESSAGE_ID 는 이 서비스만 쓴다. 방 입장/퇴장 읽음 처리(UnreadCounterService.markRead)도 {@link #markRead} 를 거친다.
+ */
+@Slf4j
+@Service
+public class ReadReceiptService {
+    private static final String UPDATE_SQL = "UPDATE MEMBER_CHAT_ROOM SET LAST_READ_MESSAGE_ID = ?, " +
+            "UNREAD_COUNT = CASE WHEN ? >= (SELECT S.LAST_MESSAGE_ID FROM CHAT_ROOM_SUMMARY S WHERE S.CHAT_ROOM_ID = ?) THEN 0 ELSE UNREAD_COUNT END " +
+            "WHERE CHAT_ROOM_ID = ? AND MEMBER_ID = ? AND (LAST_READ_MESSAGE_ID IS NULL OR LAST_READ_MESSAGE_ID < ?)";
+    private static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ChatEventBus chatEventBus;
+    private final ChatBroadcaster chatBroadcaster;
+    private final ChatRoomRosterCache chatRoomRosterCache;
+    private final MemberChatRoomRepository memberChatRoomRepository;
+    private final ChatRoomSummaryRepository chatRoomSummaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long flushMillis;
+    private final long broadcastMillis;
+    private final Map<Long, RoomWatermarks> rooms = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public ReadReceiptService(ChatEventBus chatEventBus,
+                              ChatBroadcaster chatBroadcaster,
+                              ChatRoomRosterCache chatRoomRosterCache,
+                              MemberChatRoomRepository memberChatRoomRepository,
+                              ChatRoomSummaryRepository chatRoomSummaryRepository,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${chat.read-receipt.flush-ms:1000}") long flushMillis,
+                              @Value("${chat.read-receipt.broadcast-ms:200}") long broadcastMillis) {
+        this.chatEventBus = chatEventBus;
+        this.chatBroadcaster = chatBroadcaster;
+        this.chatRoomRosterCache = chatRoomRosterCache;
+        this.memberChatRoomRepository = memberChatRoomRepository;
+        this.chatRoomSummaryRepository = chatRoomSummaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushMillis = flushMillis;
+        this.broadcastMillis = broadcastMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        chatEventBus.subscribe(this::onEvent);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-read-receipt");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::broadcastSafely, broadcastMillis, broadcastMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        // 종료 전에 남은 watermark 반영
+        flushSafely();
+    }
+
+    /**
+     * memberId 가 roomId 에서 messageId 까지 읽음. 참여자가 아니면 무시한다.
+     * messageId 가 방의 마지막 메시지보다 크면 마지막 메시지까지 읽은 것으로 한다. 메시지가 없는 방이면 무시한다.
+     */
+    public void markRead(Long roomId, Long memberId, Long messageId) {
+        if (roomId == null || memberId == null || messageId == null) {
+            return;
+        }
+        long member = memberId;
+        if (Arrays.stream(chatRoomRosterCache.getMemberIds(roomId)).noneMatch(id -> id == member)) {
+            log.debug("회원 {} 는 채팅방 {} 참여자가 아니므로 읽음 무시", memberId, roomId);
+            return;
+        }
+        long lastMessageId = rooms.computeIfAbsent(roomId, this::load).lastMessageId();
+        if (lastMessageId == 0) {
+            log.debug("채팅방 {} 에 메시지가 없으므로 읽음 무시", roomId);
+            return;
+        }
+        chatEventBus.publish(ChatEvent.builder()
+                .type(ChatEvent.Type.READ_RECEIPT)
+                .roomId(roomId)
+                .memberId(memberId)
+                .messageId(Math.min(messageId, lastMessageId))
+                .build());
+    }
+
+    private void onEvent(ChatEvent event) {
+        if (event.getType() == ChatEvent.Type.ROOM_MESSAGE) {
+            onRoomMessage(event);
+            return;
+        }
+        if (event.getType() != ChatEvent.Type.READ_RECEIPT) {
+            return;
+        }
+        boolean local = chatEventBus.getNodeId().equals(event.getNodeId());
+        RoomWatermarks room;
+        do {
+            // 그 사이 메모리에서 내린 방이면 다시 읽어 온다
+            room = rooms.computeIfAbsent(event.getRoomId(), this::load);
+        } while (!room.advance(event.getMemberId(), event.getMessageId(), local));
+    }
+
+    /**
+     * 메모리에 있는 방만 마지막 메시지 id 를 올린다. 없는 방은 읽어 올 때 요약에서 가져온다
+     */
+    private void onRoomMessage(ChatEvent event) {
+        RoomWatermarks room = rooms.get(event.getRoomId());
+        if (room != null && event.getMessage() != null && event.getMessage().getMessageId() != null) {
+            room.noteMessage(event.getMessage().getMessageId());
+        }
+    }
+
+    private RoomWatermarks load(Long roomId) {
+        RoomWatermarks room = new RoomWatermarks(roomId);
+        Long lastMessageId = chatRoomSummaryRepository.findLastMessageId(roomId);
+        if (lastMessageId != null) {
+            room.noteMessage(lastMessageId);
+        }
+        for (ReadWatermarkView view : memberChatRoomRepository.findReadWatermarks(roomId)) {
+            if (view.getLastReadMessageId() != null) {
+                room.watermarks.putIfGreater(view.getMemberId(), view.getLastReadMessageId());
+            }
+        }
+        return room;
+    }
+
+    void broadcast() {
+        for (RoomWatermarks room : rooms.values()) {
+            long[] watermarks = room.takeChangedWatermarks();
+            if (watermarks != null) {
+                chatBroadcaster.sendReadCounts(new ReadReceiptResponse(room.roomId, readCounts(watermarks)));
+            }
+        }
+    }
+
+    void flush() {
+        List<Object[]> args = new ArrayList<>();
+        Map<RoomWatermarks, long[]> drained = new HashMap<>();
+        for (RoomWatermarks room : rooms.values()) {
+            long[] memberIds = room.drainPending(args);
+            if (memberIds.length > 0) {
+                drained.put(room, memberIds);
+            }
+        }
+        if (!args.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+            } catch (RuntimeException e) {
+                // watermark 는 메모리에 그대로 있으므로 회원만 다시 pending 에 넣으면 다음 flush 에서 그때의 값으로 쓴다
+                drained.forEach(RoomWatermarks::requeue);
+                throw e;
+            }
+            log.debug("읽음 위치 {}건 반영", args.size());
+        }
+
+        long idleSince = System.currentTimeMillis() - IDLE_MILLIS;
+        for (RoomWatermarks room : rooms.values()) {
+            room.evictIfIdle(idleSince, rooms);
+        }
+    }
+
+    int roomCount() {
+        return rooms.size();
+    }
+
+    /**
+     * watermark 들로 메시지별 읽은 사람 수 계산 : 서로 다른 watermark w 마다 (w, w 이상인 watermark 수), messageId 오름차순
+     */
+    static List<ReadReceiptResponse.ReadCount> readCounts(long[] watermarks) {
+        long[] sorted = watermarks.clone();
+        Arrays.sort(sorted);
+        List<ReadReceiptResponse.ReadCount> result = new ArrayList<>();
+        int i = 0;
+        while (i < sorted.length) {
+            // sorted[i] 이상인 값은 i 부터 끝까지
+            result.add(new ReadReceiptResponse.ReadCount(sorted[i], sorted.length - i));
+            long current = sorted[i];
+            while (i < sorted.length && sorted[i] == current) {
+                i++;
+            }
+        }
+        return result;
+    }
+
+    private void broadcastSafely() {
+        try {
+            broadcast();
+        } catch (RuntimeException e) {
+            log.error("읽은 사람 수 전송 실패", e);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("읽음 위치 반영 실패", e);
+        }
+    }
+
+    private static class RoomWatermarks {
+        private final Long roomId;
+        // memberId -> 마지막으로 읽은 메시지 id
+        private final LongLongHashMap watermarks = new LongLongHashMap();
+        // 이 노드에서 받았고 아직 DB 에 반영하지 않은 회원
+        private final LongHashSet pending = new LongHashSet();
+        // 이 노드가 아는 방의 가장 큰 메시지 id (0 이면 메시지 없음)
+        private long lastMessageId;
+        private boolean changed;
+        private boolean evicted;
+        private long lastReadAt = System.currentTimeMillis();
+
+        private RoomWatermarks(Long roomId) {
+            this.roomId = roomId;
+        }
+
+        /**
+         * @return 이미 메모리에서 내린 방이면 false
+         */
+        private synchronized boolean advance(long memberId, long messageId, boolean local) {
+            if (evicted) {
+                return false;
+            }
+            lastReadAt = System.currentTimeMillis();
+            if (watermarks.putIfGreater(memberId, messageId)) {
+                changed = true;
+                if (local) {
+                    pending.add(memberId);
+                }
+            }
+            return true;
+        }
+
+        private synchronized void noteMessage(long messageId) {
+            lastMessageId = Math.max(lastMessageId, messageId);
+        }
+
+        private synchronized long lastMessageId() {
+            return lastMessageId;
+        }
+
+        private synchronized long[] takeChangedWatermarks() {
+            if (!changed) {
+                return null;
+            }
+            changed = false;
+            return watermarks.values();
+        }
+
+        /**
+         * @return args 에 담은 회원
+         */
+        private synchronized long[] drainPending(List<Object[]> args) {
+            long[] memberIds = pending.toArray();
+            for (long memberId : memberIds) {
+                long messageId = watermarks.get(memberId);
+                args.add(new Object[]{messageId, messageId, roomId, roomId, memberId, messageId});
+            }
+            pending.clear();
+            return memberIds;
+        }
+
+        private synchronized void requeue(long[] memberIds) {
+            for (long memberId : memberIds) {
+                pending.add(memberId);
+            }
+        }
+
+        /**
+         * 반영할 읽음이 없고 idleSince 이후 읽음도 없으면 rooms 에서 내린다.
+         * advance 와 같은 lock 안에서 내리므로, 내린 뒤 들어온 읽음은 새로 읽어 온 방에 반영된다.
+         */
+        private synchronized void evictIfIdle(long idleSince, Map<Long, RoomWatermarks> rooms) {
+            if (lastReadAt < idleSince && pending.isEmpty()) {
+                evicted = true;
+                rooms.remove(roomId, this);
+            }
+        }
+    }
+}
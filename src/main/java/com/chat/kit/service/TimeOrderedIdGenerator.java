@@ -0,0 +1,57 @@
+package com.chat.kit.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 시간순 64bit id : [41bit 기준 시각(2024-01-01 UTC) 이후 ms][10bit node id][12bit 순번].
+ *
+ * 같은 노드에서 발급한 id 는 항상 증가한다. 시계가 뒤로 가거나 1ms 안에 4096개를 넘게 발급하면
+ * 기다리지 않고 마지막 시각(또는 다음 ms)을 이어서 쓴다.
+ * 노드마다 node id 가 다르면 겹치지 않고, id 순서가 곧 발급 시각 순서라서 정렬 / 페이징 키로 쓸 수 있다.
+ */
+public class TimeOrderedIdGenerator {
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public TimeOrderedIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public synchronized long nextId() {
+        long timestamp = Math.max(clock.getAsLong() - EPOCH_MILLIS, lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // 이번 ms 의 순번을 다 썼으면 다음 ms 를 미리 당겨 쓴다
+                timestamp++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * id 를 발급한 시각 (epoch ms)
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+}
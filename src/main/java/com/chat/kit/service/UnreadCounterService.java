@@ -0,0 +1,86 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.response.common.UnreadCountResponse;
+import com.chat.kit.collection.LongIntHashMap;
+import com.chat.kit.collection.LongObjectHashMap;
+import com.chat.kit.persistence.repository.ChatRoomSummaryRepository;
+import com.chat.kit.persistence.repository.MemberChatRoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 회원별 / 채팅방별 안 읽은 메시지 수 관리.
+ * 메시지가 저장될 때 방에 들어와 있지 않은 참여자의 카운터를 올리고, 방에 들어오면 0 으로 되돌린다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class UnreadCounterService {
+    private static final String INCREMENT_SQL =
+            "UPDATE MEMBER_CHAT_ROOM SET UNREAD_COUNT = UNREAD_COUNT + ? WHERE CHAT_ROOM_ID = ? AND MEMBER_ID = ?";
+
+    private final MemberChatRoomRepository memberChatRoomRepository;
+    private final ChatRoomRosterCache chatRoomRosterCache;
+    private final ChatRoomPresenceRegistry chatRoomPresenceRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatRoomSummaryRepository chatRoomSummaryRepository;
+    private final ReadReceiptService readReceiptService;
+
+    /**
+     * 이번 메시지를 바로 읽지 못하는 회원 : 참여자 중 보낸 사람과 현재 방에 들어와 있는 회원을 뺀 나머지
+     * 메모리의 명단 캐시와 presence 인덱스만 보므로 트랜잭션을 시작하지 않는다 (write-behind 저장 경로)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long[] findAbsentMemberIds(Long roomId, Long senderId) {
+        return chatRoomPresenceRegistry.filterAbsent(roomId, chatRoomRosterCache.getMemberIds(roomId), senderId);
+    }
+
+    public void increment(Long roomId, long[] memberIds) {
+        if (memberIds.length == 0) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(memberIds.length);
+        for (long memberId : memberIds) {
+            ids.add(memberId);
+        }
+        memberChatRoomRepository.incrementUnreadCount(roomId, ids);
+    }
+
+    /**
+     * write-behind flush 용 : roomId -> (memberId -> 증가량) 을 JDBC batch 로 한번에 반영한다.
+     */
+    public void incrementAll(LongObjectHashMap<LongIntHashMap> deltas) {
+        List<Object[]> args = new ArrayList<>();
+        deltas.forEach((roomId, members) ->
+                members.forEach((memberId, delta) -> args.add(new Object[]{delta, roomId, memberId})));
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, args);
+        }
+    }
+
+    /**
+     * 방에 들어오거나 나갈 때 : 안 읽은 수를 0 으로 되돌리고 방의 마지막 메시지까지 읽음 처리한다.
+     * LAST_READ_MESSAGE_ID 는 ReadReceiptService 만 쓰므로(더 큰 값으로만 갱신) 여기서는 읽음 위치를 넘기기만 한다.
+     */
+    public void markRead(Long roomId, Long memberId) {
+        memberChatRoomRepository.markRead(roomId, memberId, LocalDateTime.now());
+        readReceiptService.markRead(roomId, memberId, chatRoomSummaryRepository.findLastMessageId(roomId));
+        log.debug("회원 {} 채팅방 {} 읽음 처리", memberId, roomId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UnreadCountResponse> findUnreadCounts(Long memberId) {
+        return memberChatRoomRepository.findUnreadCounts(memberId).stream()
+                .map(UnreadCountResponse::of)
+                .toList();
+    }
+}
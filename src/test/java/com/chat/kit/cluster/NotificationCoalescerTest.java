@@ -0,0 +1,60 @@
+package com.chat.kit.cluster;
+
+import com.chat.kit.api.response.common.ChatNotificationResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationCoalescerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<Long, byte[]> sent = new HashMap<>();
+    // 자동 flush 가 끼어들지 않도록 간격을 길게 두고 직접 flush 한다
+    private final NotificationCoalescer coalescer = new NotificationCoalescer(60_000, sent::put);
+
+    @AfterEach
+    void close() {
+        coalescer.close();
+    }
+
+    @Test
+    void messagesForOneMemberAreSentAsOneFrame() throws IOException {
+        coalescer.add(1L, 10L, message(10L, "first"));
+        coalescer.add(1L, 10L, message(10L, "second"));
+        coalescer.add(1L, 20L, message(20L, "other room"));
+        coalescer.add(2L, 10L, message(10L, "second"));
+
+        coalescer.flush();
+
+        assertEquals(2, sent.size());
+        ChatNotificationResponse frame = objectMapper.readValue(sent.get(1L), ChatNotificationResponse.class);
+        assertEquals(2, frame.getRooms().size());
+        assertEquals(10L, frame.getRooms().get(0).getRoomId());
+        assertEquals(2, frame.getRooms().get(0).getCount());
+        assertEquals("second", frame.getRooms().get(0).getLastMessage().getMessage());
+        assertEquals(20L, frame.getRooms().get(1).getRoomId());
+        assertEquals(1, frame.getRooms().get(1).getCount());
+    }
+
+    @Test
+    void flushSendsNothingWhenEmpty() {
+        coalescer.add(1L, 10L, message(10L, "hello"));
+        coalescer.flush();
+        sent.clear();
+
+        coalescer.flush();
+
+        assertTrue(sent.isEmpty());
+    }
+
+    private byte[] message(long roomId, String message) {
+        return ("{\"roomId\":" + roomId + ",\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,130 @@
+package com.chat.kit.cluster;
+
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.persistence.domain.ChatType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpChatEventBusTest {
+    private static final String SECRET = "cluster-secret";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TcpChatEventBus node1;
+    private TcpChatEventBus node2;
+
+    @AfterEach
+    void close() {
+        if (node2 != null) node2.close();
+        if (node1 != null) node1.close();
+    }
+
+    @Test
+    void eventPublishedOnOneNodeIsDeliveredOnBoth() throws IOException, InterruptedException {
+        //localhost 위에 노드 두개를 띄워서 node2 -> node1 으로 연결
+        node1 = node("node-1", List.of(), SECRET);
+        node1.start();
+        node2 = node("node-2", List.of(peer(node1)), SECRET);
+
+        BlockingQueue<ChatEvent> received1 = new LinkedBlockingQueue<>();
+        BlockingQueue<ChatEvent> received2 = new LinkedBlockingQueue<>();
+        node1.subscribe(received1::add);
+        node2.subscribe(event -> {
+            if (event.getType() == ChatEvent.Type.ROOM_MESSAGE) received2.add(event);
+        });
+        node2.start();
+
+        ChatRoomMessagesResponse message = ChatRoomMessagesResponse.builder()
+                .messageId(1L).roomId(10L).senderId(2L).message("hello")
+                .createdAt(LocalDateTime.now()).chatType(ChatType.TEXT)
+                .build();
+        node2.publish(roomMessage(message));
+
+        ChatEvent local = received2.poll(5, TimeUnit.SECONDS);
+        assertNotNull(local);
+        assertEquals("node-2", local.getNodeId());
+
+        ChatEvent remote = received1.poll(5, TimeUnit.SECONDS);
+        assertNotNull(remote);
+        assertEquals(ChatEvent.Type.ROOM_MESSAGE, remote.getType());
+        assertEquals("node-2", remote.getNodeId());
+        assertEquals("hello", remote.getMessage().getMessage());
+    }
+
+    @Test
+    void preEncodedPayloadIsSentInsteadOfReserializingMessage() throws IOException {
+        node1 = node("node-1", List.of(), SECRET);
+        ChatRoomMessagesResponse message = ChatRoomMessagesResponse.builder().messageId(1L).roomId(10L).message("hello").build();
+        ChatEvent event = roomMessage(message);
+        event.setNodeId("node-1");
+        event.setPayload(objectMapper.writeValueAsBytes(message));
+
+        // payload 를 그대로 붙인 줄을 받은 쪽은 message 로 읽는다
+        ChatEvent decoded = objectMapper.readValue(node1.encode(event), ChatEvent.class);
+        assertEquals(ChatEvent.Type.ROOM_MESSAGE, decoded.getType());
+        assertEquals("node-1", decoded.getNodeId());
+        assertEquals(10L, decoded.getRoomId());
+        assertEquals(message, decoded.getMessage());
+
+        // message 는 다시 직렬화하지 않는다 : payload 와 message 가 다르면 payload 가 간다
+        event.setPayload(objectMapper.writeValueAsBytes(
+                ChatRoomMessagesResponse.builder().messageId(1L).roomId(10L).message("from payload").build()));
+        assertEquals("from payload", objectMapper.readValue(node1.encode(event), ChatEvent.class).getMessage().getMessage());
+    }
+
+    @Test
+    void peerWithWrongSecretIsRejected() throws IOException, InterruptedException {
+        node1 = node("node-1", List.of(), SECRET);
+        node1.start();
+        node2 = node("node-2", List.of(peer(node1)), "wrong-secret");
+        BlockingQueue<ChatEvent> received1 = new LinkedBlockingQueue<>();
+        node1.subscribe(received1::add);
+        node2.start();
+
+        // 인증에 실패한 연결은 끊기므로 이벤트가 전달되지 않는다
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.counter("chat.cluster.auth.failures").count() == 0 && System.currentTimeMillis() < deadline) {
+            node2.publish(roomMessage(null));
+            Thread.sleep(50);
+        }
+        assertTrue(meterRegistry.counter("chat.cluster.auth.failures").count() >= 1);
+        assertNull(received1.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void eventsOverOutboxCapacityAreCountedAsDropped() throws IOException {
+        // 연결되지 않는 노드로 보내면 outbox 에 쌓이다가 가득 차면 버린다
+        node1 = node("node-1", List.of(new InetSocketAddress("127.0.0.1", 1)), SECRET);
+        node1.start();
+
+        for (int i = 0; i < 10_005; i++) {
+            node1.publish(roomMessage(null));
+        }
+
+        assertEquals(5, meterRegistry.counter("chat.cluster.outbox.dropped", "peer", "/127.0.0.1:1").count());
+    }
+
+    private TcpChatEventBus node(String nodeId, List<InetSocketAddress> peers, String secret) {
+        return new TcpChatEventBus(nodeId, new InetSocketAddress("127.0.0.1", 0), peers, secret, objectMapper, meterRegistry);
+    }
+
+    private static InetSocketAddress peer(TcpChatEventBus node) {
+        return new InetSocketAddress("127.0.0.1", node.getLocalPort());
+    }
+
+    private static ChatEvent roomMessage(ChatRoomMessagesResponse message) {
+        return ChatEvent.builder().type(ChatEvent.Type.ROOM_MESSAGE).roomId(10L).message(message).build();
+    }
+}
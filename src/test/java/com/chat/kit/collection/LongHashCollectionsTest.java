@@ -0,0 +1,86 @@
+package com.chat.kit.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashCollectionsTest {
+
+    @Test
+    void longHashSetMatchesHashSet() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            //0 과 음수, 충돌이 많도록 좁은 범위
+            long key = random.nextInt(2000) - 1000;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.add(key));
+            } else {
+                assertEquals(expected.remove(key), set.remove(key));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (long key = -1000; key < 1000; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+        Set<Long> iterated = new HashSet<>();
+        set.forEach(iterated::add);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    void longIntHashMapRemovesKeyWhenCountReachesZero() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertEquals(1, map.addTo(5L, 1));
+        assertEquals(2, map.addTo(5L, 1));
+        assertEquals(1, map.addTo(0L, 1));
+        assertEquals(2, map.size());
+
+        assertEquals(1, map.addTo(5L, -1));
+        assertEquals(0, map.addTo(5L, -1));
+        assertFalse(map.containsKey(5L));
+        assertEquals(0, map.addTo(0L, -1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void longLongHashMapKeepsLargestValue() {
+        LongLongHashMap map = new LongLongHashMap();
+        assertTrue(map.putIfGreater(7L, 100L));
+        assertFalse(map.putIfGreater(7L, 50L));
+        assertTrue(map.putIfGreater(7L, 150L));
+        assertTrue(map.putIfGreater(0L, 1L));
+        assertEquals(150L, map.get(7L));
+        assertEquals(2, map.size());
+        assertTrue(map.remove(7L));
+        assertEquals(0L, map.get(7L));
+        assertArrayEquals(new long[]{1L}, map.values());
+    }
+
+    @Test
+    void longObjectHashMapMatchesHashMap() {
+        Random random = new Random(11);
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2000) - 1000;
+            if (random.nextBoolean()) {
+                String value = String.valueOf(i);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        Map<Long, String> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+}
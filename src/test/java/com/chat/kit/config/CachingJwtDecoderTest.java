@@ -0,0 +1,113 @@
+package com.chat.kit.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(NOW);
+    private final AtomicInteger verifications = new AtomicInteger();
+    // 토큰 "exp-{초}" 는 지금부터 {초} 뒤에 만료, "bad" 는 검증 실패
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(token -> {
+        verifications.incrementAndGet();
+        if (token.equals("bad")) {
+            throw new BadJwtException("invalid signature");
+        }
+        long seconds = Long.parseLong(token.substring("exp-".length()));
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .claim("memberId", 1L)
+                .issuedAt(NOW)
+                .expiresAt(NOW.plusSeconds(seconds))
+                .build();
+    }, meterRegistry, 2, Duration.ofSeconds(60), clock);
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        Jwt first = decoder.decode("exp-30");
+        Jwt second = decoder.decode("exp-30");
+
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1, meterRegistry.counter("chat.jwt.cache", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("chat.jwt.cache", "result", "miss").count());
+    }
+
+    @Test
+    void entryExpiresWithTokenExpOrMaxTtl() {
+        decoder.decode("exp-30");
+        decoder.decode("exp-600");
+
+        clock.now = NOW.plusSeconds(30);
+        decoder.decode("exp-30");
+        assertEquals(3, verifications.get());
+
+        // exp 는 10분 뒤지만 max-ttl 60초가 지나면 다시 검증한다
+        clock.now = NOW.plusSeconds(59);
+        decoder.decode("exp-600");
+        assertEquals(3, verifications.get());
+        clock.now = NOW.plusSeconds(60);
+        decoder.decode("exp-600");
+        assertEquals(4, verifications.get());
+    }
+
+    @Test
+    void invalidTokenIsNotCached() {
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad"));
+
+        assertEquals(2, verifications.get());
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void leastRecentlyUsedTokenIsEvictedOverMaxSize() {
+        decoder.decode("exp-10");
+        decoder.decode("exp-20");
+        decoder.decode("exp-10");
+        decoder.decode("exp-30");
+
+        assertEquals(2, decoder.size());
+        decoder.decode("exp-10");
+        assertEquals(3, verifications.get());
+        decoder.decode("exp-20");
+        assertEquals(4, verifications.get());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.chat.kit.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SlowConsumerSessionDecoratorTest {
+    private static final String DESTINATION = "/sub/chatroom/1";
+
+    private final MessageChannel channel = (message, timeout) -> true;
+    private final SlowConsumerSessionDecorator session = new SlowConsumerSessionDecorator(mock(WebSocketSession.class),
+            10_000, 512 * 1024, new SimpleMeterRegistry().counter("disconnects"), decorator -> {
+    });
+
+    @Test
+    void latestMessageIsKeptWithSkippedCount() {
+        session.conflate(DESTINATION, message("1", null), channel);
+        session.conflate(DESTINATION, message("2", null), channel);
+        session.conflate(DESTINATION, message("3", null), channel);
+
+        List<SlowConsumerSessionDecorator.Conflated> flushed = flush();
+        assertEquals(1, flushed.size());
+        assertEquals("3", payload(flushed.get(0)));
+        assertEquals(2, flushed.get(0).skipped());
+        assertTrue(flush().isEmpty());
+    }
+
+    @Test
+    void messageAfterCatchingUpReplacesPendingInsteadOfOvertakingIt() {
+        // 느린 동안 conflate 된 메시지가 남아 있으면 새 메시지가 덮어쓰므로, 이전 메시지가 새 메시지 뒤에 나가지 않는다
+        session.conflate(DESTINATION, message("1", null), channel);
+
+        assertTrue(session.conflateIfPending(DESTINATION, message("2", null), channel));
+        List<SlowConsumerSessionDecorator.Conflated> flushed = flush();
+        assertEquals(List.of("2"), flushed.stream().map(SlowConsumerSessionDecoratorTest::payload).toList());
+        assertEquals(1, flushed.get(0).skipped());
+
+        // 남은 메시지가 없으면 그대로 보낸다
+        assertFalse(session.conflateIfPending(DESTINATION, message("3", null), channel));
+    }
+
+    @Test
+    void skippedCountSurvivesReconflation() {
+        // flush 로 내보낸 메시지(conflated=4)가 다시 느려져서 conflate 된 경우
+        session.conflate(DESTINATION, message("5", "4"), channel);
+        session.conflate(DESTINATION, message("6", null), channel);
+
+        List<SlowConsumerSessionDecorator.Conflated> flushed = flush();
+        assertEquals("6", payload(flushed.get(0)));
+        assertEquals(5, flushed.get(0).skipped());
+    }
+
+    private List<SlowConsumerSessionDecorator.Conflated> flush() {
+        List<SlowConsumerSessionDecorator.Conflated> flushed = new ArrayList<>();
+        session.flushConflated(flushed::add);
+        return flushed;
+    }
+
+    private static Message<byte[]> message(String payload, String conflated) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setDestination(DESTINATION);
+        if (conflated != null) {
+            accessor.setNativeHeader(SlowConsumerInterceptor.CONFLATED_HEADER, conflated);
+        }
+        return MessageBuilder.createMessage(payload.getBytes(), accessor.getMessageHeaders());
+    }
+
+    private static String payload(SlowConsumerSessionDecorator.Conflated conflated) {
+        return new String((byte[]) conflated.message().getPayload());
+    }
+}
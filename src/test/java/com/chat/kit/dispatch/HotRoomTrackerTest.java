@@ -0,0 +1,54 @@
+package com.chat.kit.dispatch;
+
+import com.chat.kit.service.ChatRoomPresenceRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotRoomTrackerTest {
+
+    private final ChatRoomPresenceRegistry presenceRegistry = new ChatRoomPresenceRegistry();
+    // 초당 메시지 5건 이상 또는 구독 세션 3개 이상이면 핫 룸, 2초 조용하면 해제
+    private final HotRoomTracker tracker = new HotRoomTracker(presenceRegistry, new SimpleMeterRegistry(), 5, 3, 2);
+    private final List<String> changes = new ArrayList<>();
+
+    HotRoomTrackerTest() {
+        tracker.addListener((roomId, hot) -> changes.add(roomId + ":" + hot));
+    }
+
+    @Test
+    void roomBecomesHotByMessageRateAndCoolsDown() {
+        for (int i = 0; i < 10; i++) {
+            tracker.record(1L);
+        }
+        tracker.record(2L);
+
+        tracker.evaluate();
+        assertTrue(tracker.isHot(1L));
+        assertFalse(tracker.isHot(2L));
+
+        tracker.evaluate();
+        assertTrue(tracker.isHot(1L));
+        tracker.evaluate();
+        assertFalse(tracker.isHot(1L));
+        assertEquals(List.of("1:true", "1:false"), changes);
+    }
+
+    @Test
+    void roomWithManySubscribersBecomesHotWhenMessagesArrive() {
+        for (int i = 0; i < 3; i++) {
+            presenceRegistry.subscribe("session-" + i, "sub-0", (long) i, ChatRoomPresenceRegistry.CHAT_ROOM_DESTINATION_PREFIX + 7);
+        }
+
+        tracker.evaluate();
+        assertFalse(tracker.isHot(7L));
+
+        tracker.record(7L);
+        tracker.evaluate();
+        assertTrue(tracker.isHot(7L));
+    }
+}
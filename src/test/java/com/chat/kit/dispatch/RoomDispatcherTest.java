@@ -0,0 +1,118 @@
+package com.chat.kit.dispatch;
+
+import com.chat.kit.service.ChatRoomPresenceRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HotRoomTracker hotRoomTracker = new HotRoomTracker(new ChatRoomPresenceRegistry(), meterRegistry, 5, 3, 2);
+    // 공용 lane 하나, 전용 lane 하나
+    private final RoomDispatcher dispatcher = new RoomDispatcher(meterRegistry, hotRoomTracker, 1, 100, 1);
+    private final List<String> processed = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void stop() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void demoteMovesRemainingTasksToSharedLaneInOrder() throws InterruptedException {
+        dispatcher.start();
+        dispatcher.promote(1L);
+        assertTrue(dispatcher.hasDedicatedLane(1L));
+
+        // 전용 lane 에서 첫 작업이 실행중인 동안 두 작업이 더 쌓여 있다
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(1L, () -> {
+            running.countDown();
+            await(release);
+            processed.add("1-a");
+        });
+        dispatcher.dispatch(1L, () -> processed.add("1-b"));
+        dispatcher.dispatch(1L, () -> processed.add("1-c"));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // 실행중인 작업을 기다리지 않고 바로 돌아온다
+        dispatcher.demote(1L);
+        assertFalse(dispatcher.hasDedicatedLane(1L));
+        release.countDown();
+
+        CountDownLatch done = new CountDownLatch(2);
+        dispatcher.dispatch(2L, () -> {
+            processed.add("2-a");
+            done.countDown();
+        });
+        dispatcher.dispatch(1L, () -> {
+            processed.add("1-d");
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("1-a", "1-b", "1-c", "1-d"),
+                processed.stream().filter(task -> task.startsWith("1-")).toList());
+    }
+
+    @Test
+    void promoteDoesNotBlockDispatchWhileSharedLaneIsFull() throws InterruptedException {
+        dispatcher.start();
+        // 공용 lane 스레드를 붙잡고 큐(100)를 가득 채운다
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(2L, () -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(1L, () -> processed.add("1-a"));
+        for (int i = 0; i < 99; i++) {
+            dispatcher.dispatch(2L, () -> {
+            });
+        }
+
+        // 공용 lane 경계를 넣느라 기다리는 동안에도 route 는 이미 바뀌어 있다
+        Thread promote = new Thread(() -> dispatcher.promote(1L));
+        promote.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!dispatcher.hasDedicatedLane(1L) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(dispatcher.hasDedicatedLane(1L));
+
+        // 전용 lane 으로 가는 dispatch 는 write lock 에 막히지 않는다
+        CountDownLatch done = new CountDownLatch(1);
+        Thread dispatch = new Thread(() -> dispatcher.dispatch(1L, () -> {
+            processed.add("1-b");
+            done.countDown();
+        }));
+        dispatch.start();
+        dispatch.join(5000);
+        assertFalse(dispatch.isAlive());
+        assertTrue(promote.isAlive());
+
+        release.countDown();
+        promote.join(5000);
+        assertFalse(promote.isAlive());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // 전용 lane 은 공용 lane 에 남아 있던 이 방 작업이 끝난 뒤에 시작한다
+        assertEquals(List.of("1-a", "1-b"), processed);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
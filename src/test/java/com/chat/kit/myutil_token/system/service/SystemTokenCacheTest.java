@@ -0,0 +1,87 @@
+package com.chat.kit.myutil_token.system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SystemTokenCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOW);
+    // 유효기간 300초, 남은 시간이 60초보다 짧으면 백그라운드 갱신, 30초보다 짧으면 요청 스레드에서 갱신
+    private final SystemTokenCache cache = new SystemTokenCache(generateKey(), Duration.ofSeconds(300), Duration.ofSeconds(60), clock);
+
+    @Test
+    void sameTokenIsHandedOutUntilRefresh() {
+        String first = cache.get();
+        clock.now = NOW.plusSeconds(239);
+        cache.refreshIfDue();
+
+        assertEquals(first, cache.get());
+
+        clock.now = NOW.plusSeconds(241);
+        cache.refreshIfDue();
+        String refreshed = cache.get();
+        assertNotEquals(first, refreshed);
+        assertEquals(refreshed, cache.get());
+    }
+
+    @Test
+    void requestThreadRefreshesOnlyWhenBackgroundRefreshFellBehind() {
+        String first = cache.get();
+
+        clock.now = NOW.plusSeconds(260);
+        assertEquals(first, cache.get());
+
+        clock.now = NOW.plusSeconds(271);
+        assertNotEquals(first, cache.get());
+    }
+
+    @Test
+    void refreshBeforeMustBeShorterThanLifetime() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SystemTokenCache(generateKey(), Duration.ofSeconds(60), Duration.ofSeconds(60), clock));
+    }
+
+    private static PrivateKey generateKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair().getPrivate();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.chat.kit.persistence.domain;
 
+import com.chat.kit.persistence.repository.ChatRoomRepository;
 import com.chat.kit.persistence.repository.MemberChatRoomRepository;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Objects;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 
 @SpringBootTest
 class MemberChatRoomTest {
@@ -20,6 +23,9 @@ class MemberChatRoomTest {
     @Autowired
     private MemberChatRoomRepository repository;
 
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
     @Test
     @Transactional()
     public void findRoom(){
@@ -33,11 +39,14 @@ class MemberChatRoomTest {
         em.persist(member2);
         em.persist(member3);
 
-        ChatRoom room1 = new ChatRoom();
-        ChatRoom room2 = new ChatRoom();
+        ChatRoom room1 = new ChatRoom(RoomType.ONE2ONE, ChatRoom.memberSetKeyOf(List.of(1L, 2L)));
+        ChatRoom room2 = new ChatRoom(RoomType.ONE2ONE, ChatRoom.memberSetKeyOf(List.of(2L, 3L)));
+        //member1, 2, 3 그룹 채팅방 : 1:1 조회에 걸리면 안 된다
+        ChatRoom room3 = new ChatRoom(RoomType.MULTIPLE, ChatRoom.memberSetKeyOf(List.of(1L, 2L, 3L)));
 
         em.persist(room1);
         em.persist(room2);
+        em.persist(room3);
 
         MemberChatRoom memberChatRoomOne2One1 = new MemberChatRoom();
         MemberChatRoom memberChatRoomOne2One2 = new MemberChatRoom();
@@ -69,11 +78,10 @@ class MemberChatRoomTest {
 
         //List<Object[]> byTwoMemberGroup = repository.findByTwoMemberGroup(member1, member2);
         //byTwoMemberGroup.forEach(v-> System.out.println("v = " + v));
-        Long roomNumber12 = repository.findOne2OneRoomNumber(member1.getId(),member2.getId());
-        System.out.println("roomNumber = " + roomNumber12);
-
-        //Long roomNumber23 = repository.findOne2OneRoomNumber(member2.getId(), member3.getId());
-        //System.out.println("roomNumber = " + roomNumber23);
+        //순서와 관계없이 같은 방
+        assertEquals(room1.getId(), chatRoomRepository.findIdByMemberSetKey(ChatRoom.memberSetKeyOf(List.of(2L, 1L))).orElseThrow());
+        assertEquals(room2.getId(), chatRoomRepository.findIdByMemberSetKey(ChatRoom.memberSetKeyOf(List.of(2L, 3L))).orElseThrow());
+        assertTrue(chatRoomRepository.findIdByMemberSetKey(ChatRoom.memberSetKeyOf(List.of(1L, 3L))).isEmpty());
 
 
     }
@@ -1,7 +1,85 @@
 package com.chat.kit.persistence.repository;
 
+import com.chat.kit.persistence.domain.ChatMessage;
+import com.chat.kit.persistence.domain.ChatRoom;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.persistence.projection.ChatMessageView;
+import com.chat.kit.support.ChatSpringBootTest;
+import com.chat.kit.support.ChatTestFixtures;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
+/**
+ * (sentAt, id) keyset 페이징 쿼리. sentAt 이 같은 메시지들은 id 로 순서가 정해져 페이지 경계에서 빠지거나 겹치지 않아야 한다.
+ */
+@ChatSpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class ChatMessageRepositoryTest {
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+    private static final LocalDateTime T1 = T0.plusSeconds(1);
+    private static final LocalDateTime T2 = T0.plusSeconds(2);
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private ChatTestFixtures fixtures;
+
+    private Long roomId;
+    // 저장 순서대로 m0(T0), m1~m3(T1), m4(T2)
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        roomId = fixtures.createRoom(List.of(401L, 402L));
+        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElseThrow();
+        for (LocalDateTime sentAt : List.of(T0, T1, T1, T1, T2)) {
+            ChatMessage saved = chatMessageRepository.save(ChatMessage.builder()
+                    .chatRoom(chatRoom)
+                    .memberId(401L)
+                    .message("m" + ids.size())
+                    .chatType(ChatType.TEXT)
+                    .sentAt(sentAt)
+                    .build());
+            ids.add(saved.getId());
+        }
+    }
+
+    @Test
+    void latestViewsAreNewestFirst() {
+        assertEquals(List.of(ids.get(4), ids.get(3)), idsOf(chatMessageRepository.findLatestViews(roomId, Limit.of(2))));
+    }
+
+    @Test
+    void viewsBeforeCursorBreakTiesById() {
+        // m3 위치보다 이전 : 같은 T1 중 id 가 작은 m2, m1 다음 m0
+        assertEquals(List.of(ids.get(2), ids.get(1)),
+                idsOf(chatMessageRepository.findViewsBefore(roomId, T1, ids.get(3), Limit.of(2))));
+        assertEquals(List.of(ids.get(2), ids.get(1), ids.get(0)),
+                idsOf(chatMessageRepository.findViewsBefore(roomId, T1, ids.get(3), Limit.of(10))));
+    }
+
+    @Test
+    void viewsAfterCursorBreakTiesById() {
+        // m1 위치보다 이후 : 같은 T1 중 id 가 큰 m2, m3 다음 m4
+        assertEquals(List.of(ids.get(2), ids.get(3), ids.get(4)),
+                idsOf(chatMessageRepository.findViewsAfter(roomId, T1, ids.get(1), Limit.of(10))));
+        assertTrue(chatMessageRepository.findViewsAfter(roomId, T2, ids.get(4), Limit.of(10)).isEmpty());
+    }
 
-}
\ No newline at end of file
+    private static List<Long> idsOf(List<ChatMessageView> views) {
+        return views.stream().map(ChatMessageView::getId).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.request.RequestChatMessage;
+import com.chat.kit.customException.InvalidCursorException;
+import com.chat.kit.customException.NoChatRoomException;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.support.ChatSpringBootTest;
+import com.chat.kit.support.ChatTestFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 채팅방 메시지 내보내기 : 전체 순서대로, after 이후부터 이어받기, 시스템 토큰 / 참여자만 허용
+ */
+@ChatSpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChatMessageExportServiceTest {
+    private static final List<Long> MEMBER_IDS = List.of(601L, 602L);
+    private static final long OUTSIDER_ID = 603L;
+
+    @Autowired
+    private ChatMessageExportService chatMessageExportService;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatTestFixtures fixtures;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long roomId;
+
+    @BeforeAll
+    void setUpRoom() {
+        fixtures.saveMembers(List.of(OUTSIDER_ID));
+        roomId = fixtures.createRoom(MEMBER_IDS);
+        for (int i = 0; i < 5; i++) {
+            chatService.saveMessage(new RequestChatMessage(MEMBER_IDS.get(i % 2), roomId, "message " + i, ChatType.TEXT));
+        }
+    }
+
+    @BeforeEach
+    void authenticateAsSystem() {
+        authenticate("role", "SYSTEM");
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void exportsWholeRoomInOrderAndResumesAfterMessageId() throws IOException {
+        List<JsonNode> all = export(null);
+        assertEquals(5, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals("message " + i, all.get(i).get("message").asText());
+            assertEquals(roomId.longValue(), all.get(i).get("roomId").asLong());
+            assertEquals(MEMBER_IDS.get(i % 2).longValue(), all.get(i).get("senderId").asLong());
+        }
+
+        List<JsonNode> rest = export(all.get(2).get("messageId").asLong());
+        assertEquals(List.of(all.get(3), all.get(4)), rest);
+        assertEquals(List.of(), export(all.get(4).get("messageId").asLong()));
+    }
+
+    @Test
+    void rejectsUnknownRoomOrMessage() {
+        assertThrows(NoChatRoomException.class, () -> chatMessageExportService.prepare(-1L, null));
+        assertThrows(InvalidCursorException.class, () -> chatMessageExportService.prepare(roomId, -1L));
+    }
+
+    @Test
+    void onlySystemOrParticipantMayExport() throws IOException {
+        authenticate("memberId", MEMBER_IDS.get(1));
+        assertEquals(5, export(null).size());
+
+        authenticate("memberId", OUTSIDER_ID);
+        assertThrows(RuntimeException.class, () -> chatMessageExportService.prepare(roomId, null));
+
+        SecurityContextHolder.clearContext();
+        assertThrows(RuntimeException.class, () -> chatMessageExportService.prepare(roomId, null));
+    }
+
+    private static void authenticate(String claim, Object value) {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "RS256").claim(claim, value).build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    private List<JsonNode> export(Long after) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = chatMessageExportService.export(chatMessageExportService.prepare(roomId, after), out);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        assertEquals(count, lines.size());
+        return lines;
+    }
+}
@@ -0,0 +1,102 @@
+package com.chat.kit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatRoomPresenceRegistryTest {
+
+    private final ChatRoomPresenceRegistry registry = new ChatRoomPresenceRegistry();
+
+    @Test
+    void subscribeAndUnsubscribe() {
+        registry.subscribe("s1", "sub-0", 1L, "/sub/chatroom/10");
+        registry.subscribe("s2", "sub-0", 2L, "/sub/chatroom/10");
+        //채팅방 구독이 아닌 경우 무시
+        registry.subscribe("s1", "sub-1", 1L, "/sub/myRoom/1");
+
+        assertEquals(2, registry.getOnlineMemberIds(10L).size());
+        assertTrue(registry.isOnline(10L, 1L));
+
+        registry.unsubscribe("s1", "sub-0");
+        assertFalse(registry.isOnline(10L, 1L));
+        assertTrue(registry.isOnline(10L, 2L));
+    }
+
+    @Test
+    void memberStaysOnlineWhileAnySessionSubscribed() {
+        //같은 회원이 두 세션으로 같은 방에 들어온 경우
+        registry.subscribe("s1", "sub-0", 1L, "/sub/chatroom/10");
+        registry.subscribe("s2", "sub-0", 1L, "/sub/chatroom/10");
+
+        registry.disconnect("s1");
+        assertTrue(registry.isOnline(10L, 1L));
+
+        registry.disconnect("s2");
+        registry.disconnect("s2");
+        assertFalse(registry.isOnline(10L, 1L));
+        assertTrue(registry.getOnlineMemberIds(10L).isEmpty());
+    }
+
+    @Test
+    void presenceChangesAreNotifiedInOrder() throws Exception {
+        // 같은 회원이 두 세션으로 같은 방을 들락날락해도, 알림은 입장/퇴장이 번갈아 나오고 마지막 알림이 최종 상태와 같아야 한다
+        List<Boolean> notified = Collections.synchronizedList(new ArrayList<>());
+        registry.addListener((roomId, memberId, joined) -> notified.add(joined));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (String sessionId : List.of("s1", "s2")) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 2_000; i++) {
+                    registry.subscribe(sessionId, "sub-0", 1L, "/sub/chatroom/10");
+                    registry.unsubscribe(sessionId, "sub-0");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Boolean> events = new ArrayList<>(notified);
+        assertFalse(events.isEmpty());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i % 2 == 0, events.get(i), "알림 순서가 바뀜 : " + i);
+        }
+        assertFalse(events.get(events.size() - 1));
+        assertFalse(registry.isOnline(10L, 1L));
+    }
+
+    @Test
+    void roomsInDifferentStripesAreIndependent() {
+        for (long roomId = 1; roomId <= 200; roomId++) {
+            registry.subscribe("s1", "sub-" + roomId, roomId, "/sub/chatroom/" + roomId);
+        }
+        registry.applyRemote("node-2", 7L, 99L, true);
+
+        for (long roomId = 1; roomId <= 200; roomId++) {
+            assertEquals(1, registry.getLocalSubscriberCount(roomId));
+            assertArrayEquals(new long[0], registry.filterAbsent(roomId, new long[]{roomId}, -1L));
+        }
+        assertTrue(registry.isOnline(7L, 99L));
+        assertFalse(registry.isOnline(8L, 99L));
+
+        registry.clearRemote("node-2");
+        assertFalse(registry.isOnline(7L, 99L));
+        registry.disconnect("s1");
+        assertEquals(0, registry.getLocalSubscriberCount(1L));
+    }
+}
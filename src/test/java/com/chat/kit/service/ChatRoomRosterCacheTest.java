@@ -0,0 +1,53 @@
+package com.chat.kit.service;
+
+import com.chat.kit.persistence.repository.MemberChatRoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChatRoomRosterCacheTest {
+    private static final long ROOM_ID = 1L;
+
+    private final MemberChatRoomRepository memberChatRoomRepository = mock(MemberChatRoomRepository.class);
+    private final ChatRoomRosterCache rosterCache = new ChatRoomRosterCache(memberChatRoomRepository, 100);
+
+    @Test
+    void loadedRosterIsCached() {
+        when(memberChatRoomRepository.findMemberIdsByChatRoomId(ROOM_ID)).thenReturn(List.of(10L, 11L));
+
+        assertArrayEquals(new long[]{10L, 11L}, rosterCache.getMemberIds(ROOM_ID));
+        assertArrayEquals(new long[]{10L, 11L}, rosterCache.getMemberIds(ROOM_ID));
+        verify(memberChatRoomRepository, times(1)).findMemberIdsByChatRoomId(ROOM_ID);
+    }
+
+    @Test
+    void rosterLoadedBeforeEvictIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        // 첫 읽기는 evict 이전 명단을 읽은 채로 evict 가 끝날 때까지 멈춰 있다
+        when(memberChatRoomRepository.findMemberIdsByChatRoomId(ROOM_ID))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    assertTrue(evicted.await(5, TimeUnit.SECONDS));
+                    return List.of(10L, 11L);
+                })
+                .thenReturn(List.of(10L, 11L, 12L));
+
+        CompletableFuture<long[]> staleLoad = CompletableFuture.supplyAsync(() -> rosterCache.getMemberIds(ROOM_ID));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        rosterCache.evict(ROOM_ID);
+        evicted.countDown();
+
+        // 진행중이던 읽기는 자기가 읽은 값을 돌려주지만 캐시에는 남기지 않는다
+        assertArrayEquals(new long[]{10L, 11L}, staleLoad.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new long[]{10L, 11L, 12L}, rosterCache.getMemberIds(ROOM_ID));
+        assertArrayEquals(new long[]{10L, 11L, 12L}, rosterCache.getMemberIds(ROOM_ID));
+        verify(memberChatRoomRepository, times(2)).findMemberIdsByChatRoomId(ROOM_ID);
+    }
+}
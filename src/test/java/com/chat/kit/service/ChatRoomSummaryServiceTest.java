@@ -0,0 +1,94 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.request.RequestChatMessage;
+import com.chat.kit.api.response.common.ChatRoomListResponse;
+import com.chat.kit.persistence.domain.ChatRoomSummary;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.persistence.repository.ChatRoomSummaryRepository;
+import com.chat.kit.support.ChatSpringBootTest;
+import com.chat.kit.support.ChatTestFixtures;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 채팅방 목록이 마지막 메시지 최신순(메시지 없는 방은 맨 뒤)으로 나오는지,
+ * 요약 행이 없는 방은 메시지 저장 트랜잭션이 커밋된 뒤 이번 메시지까지 포함해서 다시 계산되는지 확인.
+ */
+@ChatSpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChatRoomSummaryServiceTest {
+    private static final long MEMBER_ID = 301L;
+    private static final long FIRST_ID = 302L;
+    private static final long SECOND_ID = 303L;
+    private static final long QUIET_ID = 304L;
+    private static final long REBUILD_ID = 305L;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatRoomSummaryRepository chatRoomSummaryRepository;
+
+    @Autowired
+    private ChatTestFixtures fixtures;
+
+    @BeforeAll
+    void setUp() {
+        fixtures.saveMembers(List.of(MEMBER_ID, FIRST_ID, SECOND_ID, QUIET_ID, REBUILD_ID));
+    }
+
+    @Test
+    void roomListIsSortedByLastMessage() {
+        Long quiet = chatService.createNewChatRoom(List.of(MEMBER_ID, QUIET_ID));
+        Long first = chatService.createNewChatRoom(List.of(MEMBER_ID, FIRST_ID));
+        Long second = chatService.createNewChatRoom(List.of(MEMBER_ID, SECOND_ID));
+
+        send(first, FIRST_ID, "first 1");
+        send(second, SECOND_ID, "second 1");
+        send(first, FIRST_ID, "first 2");
+
+        List<Long> roomIds = chatService.getChatRoomList(MEMBER_ID).stream()
+                .map(ChatRoomListResponse::getRoomId)
+                .filter(roomId -> List.of(quiet, first, second).contains(roomId))
+                .toList();
+        assertEquals(List.of(first, second, quiet), roomIds);
+    }
+
+    @Test
+    void missingSummaryIsRebuiltAfterCommit() throws InterruptedException {
+        Long roomId = chatService.createNewChatRoom(List.of(MEMBER_ID, REBUILD_ID));
+        send(roomId, REBUILD_ID, "before summary");
+        // 요약 행이 없던 기존 채팅방처럼 만든다
+        chatRoomSummaryRepository.deleteById(roomId);
+
+        send(roomId, REBUILD_ID, "rebuilt");
+
+        ChatRoomSummary summary = awaitSummary(roomId);
+        assertEquals(2, summary.getMessageCount());
+        assertEquals("rebuilt", summary.getLastMessage());
+        assertEquals(List.of(MEMBER_ID, REBUILD_ID), ChatRoomSummary.splitIds(summary.getParticipantIds()).stream().sorted().toList());
+    }
+
+    private ChatRoomSummary awaitSummary(Long roomId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<ChatRoomSummary> summary = chatRoomSummaryRepository.findById(roomId);
+            if (summary.isPresent()) {
+                return summary.get();
+            }
+            Thread.sleep(20);
+        }
+        return fail("채팅방 " + roomId + " 요약이 재계산되지 않음");
+    }
+
+    private void send(Long roomId, long senderId, String message) {
+        chatService.saveMessage(new RequestChatMessage(senderId, roomId, message, ChatType.TEXT));
+    }
+}
@@ -0,0 +1,106 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.request.RequestChatMessage;
+import com.chat.kit.api.response.common.ChatRoomMessagesPageResponse;
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.customException.InvalidCursorException;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.support.ChatSpringBootTest;
+import com.chat.kit.support.ChatTestFixtures;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 채팅방 메시지 커서 페이징 (GET /chat/{roomId}/messages).
+ * 최신 페이지에서 before 로 끝까지, 다시 after 로 끝까지 따라가면 모든 메시지를 한번씩 순서대로 받아야 한다.
+ */
+@ChatSpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChatServiceMessagePageTest {
+    private static final long SENDER_ID = 501L;
+    private static final long RECEIVER_ID = 502L;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatTestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Long roomId;
+
+    @BeforeAll
+    void setUp() {
+        roomId = fixtures.createRoom(List.of(SENDER_ID, RECEIVER_ID));
+        for (int i = 1; i <= 5; i++) {
+            chatService.saveMessage(new RequestChatMessage(SENDER_ID, roomId, "m" + i, ChatType.TEXT));
+        }
+    }
+
+    @Test
+    void pagesBackwardWithBeforeCursor() {
+        ChatRoomMessagesPageResponse latest = chatService.findChatMessages(roomId, null, null, 2);
+        assertEquals(List.of("m4", "m5"), messages(latest));
+        assertTrue(latest.isHasMore());
+
+        ChatRoomMessagesPageResponse older = chatService.findChatMessages(roomId, latest.getBeforeCursor(), null, 2);
+        assertEquals(List.of("m2", "m3"), messages(older));
+        assertTrue(older.isHasMore());
+
+        ChatRoomMessagesPageResponse oldest = chatService.findChatMessages(roomId, older.getBeforeCursor(), null, 2);
+        assertEquals(List.of("m1"), messages(oldest));
+        assertFalse(oldest.isHasMore());
+    }
+
+    @Test
+    void pagesForwardWithAfterCursor() {
+        ChatRoomMessagesPageResponse oldest = chatService.findChatMessages(roomId, null, null, 5);
+        String afterFirst = oldest.getMessages().get(0).cursor();
+
+        ChatRoomMessagesPageResponse newer = chatService.findChatMessages(roomId, null, afterFirst, 2);
+        assertEquals(List.of("m2", "m3"), messages(newer));
+        assertTrue(newer.isHasMore());
+
+        ChatRoomMessagesPageResponse newest = chatService.findChatMessages(roomId, null, newer.getAfterCursor(), 2);
+        assertEquals(List.of("m4", "m5"), messages(newest));
+        assertFalse(newest.isHasMore());
+
+        ChatRoomMessagesPageResponse empty = chatService.findChatMessages(roomId, null, newest.getAfterCursor(), 2);
+        assertTrue(empty.getMessages().isEmpty());
+        assertNull(empty.getAfterCursor());
+        assertFalse(empty.isHasMore());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        for (String cursor : List.of("abc", "123", "_5", "123_", "123_x")) {
+            assertThrows(InvalidCursorException.class, () -> chatService.findChatMessages(roomId, cursor, null, 2), cursor);
+            assertThrows(InvalidCursorException.class, () -> chatService.findChatMessages(roomId, null, cursor, 2), cursor);
+        }
+        String cursor = chatService.findChatMessages(roomId, null, null, 1).getBeforeCursor();
+        assertThrows(InvalidCursorException.class, () -> chatService.findChatMessages(roomId, cursor, cursor, 2));
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/chat/{roomId}/messages", roomId).param("before", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INVALID_VALUE"));
+    }
+
+    private static List<String> messages(ChatRoomMessagesPageResponse page) {
+        return page.getMessages().stream().map(ChatRoomMessagesResponse::getMessage).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.request.RequestChatMessage;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.support.ChatSpringBootTest;
+import com.chat.kit.support.ChatTestFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 조회 API 가 참여자 / 메시지 수와 관계없이 고정된 수의 쿼리로 끝나고 엔티티를 읽지 않는지 Hibernate Statistics 로 확인.
+ * 크기가 다른 두 데이터(참여자 / 방 / 메시지 수)에서 같은 쿼리 수가 나와야 한다.
+ */
+@ChatSpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChatServiceQueryCountTest {
+    // 회원 id 는 scale 마다 겹치지 않게 scale * 1000 부터 쓴다
+    private static final int SMALL = 1;
+    private static final int LARGE = 10;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private ChatTestFixtures fixtures;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    // scale -> 측정 대상 그룹 채팅방
+    private final Map<Integer, Long> roomIds = new HashMap<>();
+
+    @BeforeAll
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        seed(SMALL);
+        seed(LARGE);
+    }
+
+    /**
+     * 회원 memberId(scale) 가 참여한 방 scale * 2 개 (참여자 scale * 3 명인 그룹 채팅방 하나와 1:1 방들),
+     * 그룹 채팅방에 메시지 scale * 20 건
+     */
+    private void seed(int scale) {
+        long memberId = memberId(scale);
+        List<Long> participantIds = LongStream.range(memberId, memberId + scale * 3L).boxed().toList();
+        Long roomId = fixtures.createRoom(participantIds);
+        for (int other = 1; other < scale * 2; other++) {
+            chatService.createNewChatRoom(List.of(memberId, participantIds.get(other)));
+        }
+        for (int i = 0; i < scale * 20; i++) {
+            chatService.saveMessage(new RequestChatMessage(memberId + 1, roomId, "message " + i, ChatType.TEXT));
+        }
+        roomIds.put(scale, roomId);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {SMALL, LARGE})
+    void readEndpointsUseFixedQueriesWithoutLoadingEntities(int scale) {
+        long memberId = memberId(scale);
+        Long roomId = roomIds.get(scale);
+        assertQueries(2, () -> chatService.getChatRoomList(memberId));
+        assertQueries(2, () -> chatService.findChatMessages(roomId, null, null, 10));
+        assertQueries(1, () -> chatService.findUnreadChats(memberId, null, 10));
+        assertQueries(1, () -> unreadCounterService.findUnreadCounts(memberId));
+    }
+
+    private static long memberId(int scale) {
+        return scale * 1000L;
+    }
+
+    private void assertQueries(long expected, Supplier<?> call) {
+        statistics.clear();
+        assertNotNull(call.get());
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
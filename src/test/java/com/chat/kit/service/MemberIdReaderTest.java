@@ -0,0 +1,60 @@
+package com.chat.kit.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberIdReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsJsonArrayInChunks() throws IOException {
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)),
+                readChunks("[1, {\"id\": 2}, 3, {\"name\": \"a\", \"id\": 4}, 5]", 2));
+    }
+
+    @Test
+    void readsNdjson() throws IOException {
+        assertEquals(List.of(List.of(1L, 2L, 3L)),
+                readChunks("1\n{\"id\":2}\n\n3\n", 10));
+    }
+
+    @Test
+    void emptyInputHasNoChunks() throws IOException {
+        assertEquals(List.of(), readChunks("[]", 10));
+        assertEquals(List.of(), readChunks("", 10));
+    }
+
+    @Test
+    void rejectsEntryWithoutId() {
+        assertThrows(JsonParseException.class, () -> readChunks("[1, {\"name\": \"a\"}]", 10));
+        assertThrows(JsonParseException.class, () -> readChunks("[1, \"2\"]", 10));
+    }
+
+    private List<List<Long>> readChunks(String body, int chunkSize) throws IOException {
+        List<List<Long>> chunks = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))) {
+            MemberIdReader reader = new MemberIdReader(parser);
+            long[] buffer = new long[chunkSize];
+            int count;
+            while ((count = reader.read(buffer)) > 0) {
+                List<Long> chunk = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    chunk.add(buffer[i]);
+                }
+                chunks.add(chunk);
+            }
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,149 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.response.common.ReadReceiptResponse.ReadCount;
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.cluster.ChatBroadcaster;
+import com.chat.kit.cluster.ChatEvent;
+import com.chat.kit.cluster.LocalChatEventBus;
+import com.chat.kit.persistence.repository.ChatRoomSummaryRepository;
+import com.chat.kit.persistence.repository.MemberChatRoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadReceiptServiceTest {
+    private static final long ROOM_ID = 1L;
+    private static final long LAST_MESSAGE_ID = 20L;
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final LocalChatEventBus eventBus = new LocalChatEventBus("node-1");
+    private ReadReceiptService readReceiptService;
+
+    @BeforeEach
+    void setUp() {
+        ChatRoomRosterCache rosterCache = mock(ChatRoomRosterCache.class);
+        when(rosterCache.getMemberIds(ROOM_ID)).thenReturn(new long[]{10L, 11L});
+        ChatRoomSummaryRepository summaryRepository = mock(ChatRoomSummaryRepository.class);
+        when(summaryRepository.findLastMessageId(ROOM_ID)).thenReturn(LAST_MESSAGE_ID);
+        // 스케줄러가 끼어들지 않도록 주기를 길게 두고 flush 를 직접 호출한다
+        readReceiptService = new ReadReceiptService(eventBus, mock(ChatBroadcaster.class),
+                rosterCache, mock(MemberChatRoomRepository.class), summaryRepository, jdbcTemplate, 3_600_000, 3_600_000);
+        readReceiptService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        readReceiptService.stop();
+    }
+
+    @Test
+    void readCountsIsStepFunctionOverWatermarks() {
+        //회원 4명이 각각 10, 30, 30, 50 까지 읽음
+        List<ReadCount> readCounts = ReadReceiptService.readCounts(new long[]{30, 10, 50, 30});
+
+        assertEquals(List.of(
+                new ReadCount(10L, 4),
+                new ReadCount(30L, 3),
+                new ReadCount(50L, 1)), readCounts);
+    }
+
+    @Test
+    void emptyRoomHasNoReadCounts() {
+        assertTrue(ReadReceiptService.readCounts(new long[0]).isEmpty());
+    }
+
+    @Test
+    void flushWritesLatestWatermarkOncePerMember() {
+        readReceiptService.markRead(ROOM_ID, 10L, 5L);
+        readReceiptService.markRead(ROOM_ID, 10L, 7L);
+        readReceiptService.markRead(ROOM_ID, 10L, 6L);
+        readReceiptService.markRead(ROOM_ID, 11L, 3L);
+        // 참여자가 아닌 회원은 무시
+        readReceiptService.markRead(ROOM_ID, 99L, 8L);
+
+        readReceiptService.flush();
+
+        assertEquals(1, jdbcTemplate.batches.size());
+        assertEquals(Map.of(10L, 7L, 11L, 3L), jdbcTemplate.lastBatch());
+
+        // 바뀐 watermark 가 없으면 쓰지 않는다
+        readReceiptService.flush();
+        assertEquals(1, jdbcTemplate.batches.size());
+    }
+
+    @Test
+    void failedFlushIsWrittenByNextFlush() {
+        readReceiptService.markRead(ROOM_ID, 10L, 5L);
+        readReceiptService.markRead(ROOM_ID, 11L, 3L);
+
+        jdbcTemplate.failNext = true;
+        assertThrows(QueryTimeoutException.class, readReceiptService::flush);
+
+        // 실패한 사이에 더 읽었으면 다음 flush 는 그 값을 쓴다
+        readReceiptService.markRead(ROOM_ID, 10L, 9L);
+        readReceiptService.flush();
+
+        assertEquals(Map.of(10L, 9L, 11L, 3L), jdbcTemplate.lastBatch());
+        assertEquals(1, readReceiptService.roomCount());
+    }
+
+    @Test
+    void watermarkIsClampedToLastMessage() {
+        // 아직 없는 메시지 id 로 watermark 를 앞으로 보내 놓을 수 없다
+        readReceiptService.markRead(ROOM_ID, 10L, Long.MAX_VALUE);
+        readReceiptService.flush();
+        assertEquals(Map.of(10L, LAST_MESSAGE_ID), jdbcTemplate.lastBatch());
+
+        // 새 메시지가 오면 그 메시지까지 읽을 수 있다
+        readReceiptService.markRead(ROOM_ID, 11L, LAST_MESSAGE_ID);
+        eventBus.publish(ChatEvent.builder()
+                .type(ChatEvent.Type.ROOM_MESSAGE)
+                .roomId(ROOM_ID)
+                .message(ChatRoomMessagesResponse.builder().messageId(25L).roomId(ROOM_ID).build())
+                .build());
+        readReceiptService.markRead(ROOM_ID, 10L, 30L);
+        readReceiptService.flush();
+        assertEquals(Map.of(10L, 25L, 11L, LAST_MESSAGE_ID), jdbcTemplate.lastBatch());
+    }
+
+    /**
+     * batchUpdate 인자를 기록하고, failNext 면 한번 실패한다
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<List<Object[]>> batches = new ArrayList<>();
+        private boolean failNext;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (failNext) {
+                failNext = false;
+                throw new QueryTimeoutException("timeout");
+            }
+            batches.add(new ArrayList<>(batchArgs));
+            return new int[batchArgs.size()];
+        }
+
+        /**
+         * memberId -> LAST_READ_MESSAGE_ID
+         */
+        private Map<Long, Long> lastBatch() {
+            Map<Long, Long> watermarks = new TreeMap<>();
+            for (Object[] args : batches.get(batches.size() - 1)) {
+                assertEquals(ROOM_ID, args[2]);
+                watermarks.put((Long) args[4], (Long) args[0]);
+            }
+            return watermarks;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.chat.kit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void idsIncreaseEvenWhenClockGoesBackOrSequenceOverflows() {
+        AtomicLong now = new AtomicLong(TimeOrderedIdGenerator.EPOCH_MILLIS + 1_000);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3, now::get);
+
+        long previous = generator.nextId();
+        //1ms 안에 순번(4096)보다 많이 발급
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        //시계가 뒤로 가도 줄어들지 않는다
+        now.addAndGet(-500);
+        long id = generator.nextId();
+        assertTrue(id > previous);
+    }
+
+    @Test
+    void idContainsTimestamp() {
+        long now = TimeOrderedIdGenerator.EPOCH_MILLIS + 123_456;
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID, () -> now);
+        assertEquals(now, TimeOrderedIdGenerator.timestampOf(generator.nextId()));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID + 1));
+    }
+}
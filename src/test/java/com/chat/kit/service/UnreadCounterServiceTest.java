@@ -0,0 +1,102 @@
+package com.chat.kit.service;
+
+import com.chat.kit.api.request.RequestChatMessage;
+import com.chat.kit.api.response.common.ChatRoomMessagesPageResponse;
+import com.chat.kit.api.response.common.ChatRoomMessagesResponse;
+import com.chat.kit.api.response.common.UnreadCountResponse;
+import com.chat.kit.persistence.domain.ChatType;
+import com.chat.kit.support.ChatSpringBootTest;
+import com.chat.kit.support.ChatTestFixtures;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 안 읽은 메시지 수(/chat/unread-counts)와 안 읽은 메시지 목록(/chat/unread)이 같은 메시지를 세는지 확인.
+ * 방에 있는 동안 받은 메시지는 어느 쪽에도 나오지 않고, 나간 뒤 받은 메시지만 양쪽에 나와야 한다.
+ */
+@ChatSpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UnreadCounterServiceTest {
+    private static final long READER_ID = 201L;
+    private static final long SENDER_ID = 202L;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private ChatRoomPresenceRegistry chatRoomPresenceRegistry;
+
+    @Autowired
+    private ChatTestFixtures fixtures;
+
+    private Long roomId;
+
+    @BeforeAll
+    void setUp() {
+        roomId = fixtures.createRoom(List.of(READER_ID, SENDER_ID));
+    }
+
+    @Test
+    void unreadListingMatchesCounterAfterUnsubscribeAndDisconnect() {
+        // 방에 있는 동안 받은 메시지는 나간 뒤에도 안 읽은 메시지가 아니다
+        enter("session-1");
+        send("while present 1");
+        send("while present 2");
+        chatRoomPresenceRegistry.unsubscribe("session-1", "sub-1");
+
+        assertEquals(0, unreadCount());
+        assertTrue(chatService.findUnreadChats(READER_ID, null, 10).getMessages().isEmpty());
+
+        // 나간 뒤 받은 메시지는 양쪽 모두에 나온다 (size=1 로 cursor 다음 페이지까지 확인)
+        send("after leave 1");
+        send("after leave 2");
+
+        assertEquals(2, unreadCount());
+        ChatRoomMessagesPageResponse first = chatService.findUnreadChats(READER_ID, null, 1);
+        assertEquals(List.of("after leave 1"), messages(first));
+        assertTrue(first.isHasMore());
+        ChatRoomMessagesPageResponse second = chatService.findUnreadChats(READER_ID, first.getAfterCursor(), 1);
+        assertEquals(List.of("after leave 2"), messages(second));
+        assertFalse(second.isHasMore());
+
+        // 다시 들어왔다가 연결이 끊겨도 마찬가지
+        enter("session-2");
+        send("while present 3");
+        chatRoomPresenceRegistry.disconnect("session-2");
+
+        assertEquals(0, unreadCount());
+        assertTrue(chatService.findUnreadChats(READER_ID, null, 10).getMessages().isEmpty());
+    }
+
+    /**
+     * StompInterceptor 의 SUBSCRIBE 처리와 같다
+     */
+    private void enter(String sessionId) {
+        chatRoomPresenceRegistry.subscribe(sessionId, "sub-1", READER_ID, ChatRoomPresenceRegistry.CHAT_ROOM_DESTINATION_PREFIX + roomId);
+        unreadCounterService.markRead(roomId, READER_ID);
+    }
+
+    private void send(String message) {
+        chatService.saveMessage(new RequestChatMessage(SENDER_ID, roomId, message, ChatType.TEXT));
+    }
+
+    private int unreadCount() {
+        return unreadCounterService.findUnreadCounts(READER_ID).stream()
+                .filter(count -> count.getRoomId().equals(roomId))
+                .mapToInt(UnreadCountResponse::getUnreadCount)
+                .sum();
+    }
+
+    private static List<String> messages(ChatRoomMessagesPageResponse page) {
+        return page.getMessages().stream().map(ChatRoomMessagesResponse::getMessage).toList();
+    }
+}
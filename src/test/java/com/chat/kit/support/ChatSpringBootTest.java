@@ -0,0 +1,25 @@
+package com.chat.kit.support;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * DB 를 쓰는 서비스 / repository 테스트 공통 설정. 설정이 모두 같아야 Spring context 하나(같은 H2 DB)를 같이 쓴다.
+ * 테스트끼리 데이터가 섞이지 않도록 회원 id 대역은 {@link ChatTestFixtures} 에 적힌 대로 나눠 쓴다.
+ * (Hibernate Statistics : ChatServiceQueryCountTest, export fetch-size 2 : ChatMessageExportServiceTest 의 여러 번 fetch 확인)
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "chat.export.fetch-size=2"})
+@AutoConfigureMockMvc
+@Import(ChatTestFixtures.class)
+public @interface ChatSpringBootTest {
+}
@@ -0,0 +1,44 @@
+package com.chat.kit.support;
+
+import com.chat.kit.persistence.domain.Member;
+import com.chat.kit.persistence.repository.MemberRepository;
+import com.chat.kit.service.ChatService;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 테스트 데이터 준비 (회원 등록, 채팅방 생성).
+ * {@link ChatSpringBootTest} 테스트들은 같은 DB 를 쓰므로 회원 id 는 테스트마다 아래 대역을 쓴다.
+ * <ul>
+ *     <li>201~ : UnreadCounterServiceTest</li>
+ *     <li>301~ : ChatRoomSummaryServiceTest</li>
+ *     <li>401~ : ChatMessageRepositoryTest</li>
+ *     <li>501~ : ChatServiceMessagePageTest</li>
+ *     <li>601~ : ChatMessageExportServiceTest</li>
+ *     <li>1000~, 10000~ : ChatServiceQueryCountTest (scale * 1000)</li>
+ * </ul>
+ */
+@TestComponent
+public class ChatTestFixtures {
+    private final MemberRepository memberRepository;
+    private final ChatService chatService;
+
+    public ChatTestFixtures(MemberRepository memberRepository, ChatService chatService) {
+        this.memberRepository = memberRepository;
+        this.chatService = chatService;
+    }
+
+    public void saveMembers(Collection<Long> memberIds) {
+        memberRepository.saveAll(memberIds.stream().map(Member::new).toList());
+    }
+
+    /**
+     * 회원들을 등록하고 그 회원들이 참여한 채팅방을 만든다
+     */
+    public Long createRoom(List<Long> memberIds) {
+        saveMembers(memberIds);
+        return chatService.createNewChatRoom(memberIds);
+    }
+}